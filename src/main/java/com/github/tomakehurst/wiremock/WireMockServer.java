@@ -97,6 +97,9 @@ public class WireMockServer implements Container {
                 mappingsSaver,
                 stubFilesRepository,
                 journalCapacity,
+                options.compiledMatchersEnabled(),
+                options.parallelMatchingThreshold(),
+                options.regexStepBudget(),
                 this
         );
 
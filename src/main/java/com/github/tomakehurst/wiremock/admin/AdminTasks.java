@@ -42,6 +42,7 @@ public class AdminTasks {
                 .put(requestSpec(POST, "/socket-delay"), SocketDelayTask.class)
                 .put(requestSpec(POST, "/settings/get"), GlobalSettingsGetTask.class)
                 .put(requestSpec(POST, "/settings/set"), GlobalSettingsUpdateTask.class)
+                .put(requestSpec(GET, "/regex-budget/overruns"), RegexBudgetOverrunsTask.class)
                 .put(requestSpec(POST, "/shutdown"), ShutdownServerTask.class)
                 .build();
 
@@ -24,6 +24,7 @@ import com.github.tomakehurst.wiremock.http.HttpClientFactory;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.stubbing.ListStubFilesResult;
 import com.github.tomakehurst.wiremock.stubbing.ListStubMappingsResult;
+import com.github.tomakehurst.wiremock.stubbing.RegexBudgetOverrunsResult;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.github.tomakehurst.wiremock.verification.FindRequestsResult;
 import com.github.tomakehurst.wiremock.verification.VerificationResult;
@@ -161,6 +162,14 @@ public class HttpAdminClient implements Admin {
         return Json.read(body, GlobalSettings.class);
     }
 
+    @Override
+    public RegexBudgetOverrunsResult findRegexBudgetOverruns() {
+        String body = getJsonAssertOkAndReturnBody(
+                urlFor(RegexBudgetOverrunsTask.class),
+                HTTP_OK);
+        return Json.read(body, RegexBudgetOverrunsResult.class);
+    }
+
     private String postJsonAssertOkAndReturnBody(String url, String json, int expectedStatus) {
 		HttpPost post = new HttpPost(url);
 		try {
@@ -28,6 +28,8 @@ public class ValueMatchingStrategy {
     private String matches;
     private String doesNotMatch;
     private String contains;
+    private String binaryEqualTo;
+    private String binaryContains;
     private String matchesJsonPath;
 
     public ValuePattern asValuePattern() {
@@ -39,6 +41,8 @@ public class ValueMatchingStrategy {
 		pattern.setMatches(matches);
 		pattern.setDoesNotMatch(doesNotMatch);
 		pattern.setContains(contains);
+        pattern.setBinaryEqualTo(binaryEqualTo);
+        pattern.setBinaryContains(binaryContains);
         pattern.setMatchesJsonPaths(matchesJsonPath);
 		return pattern;
 	}
@@ -51,6 +55,22 @@ public class ValueMatchingStrategy {
 		this.contains = contains;
 	}
 
+    public String getBinaryEqualTo() {
+        return binaryEqualTo;
+    }
+
+    public void setBinaryEqualTo(String binaryEqualTo) {
+        this.binaryEqualTo = binaryEqualTo;
+    }
+
+    public String getBinaryContains() {
+        return binaryContains;
+    }
+
+    public void setBinaryContains(String binaryContains) {
+        this.binaryContains = binaryContains;
+    }
+
 	public static Function<ValueMatchingStrategy, ValuePattern> toValuePattern = new Function<ValueMatchingStrategy, ValuePattern>() {
 		public ValuePattern apply(ValueMatchingStrategy input) {
 			return input.asValuePattern();
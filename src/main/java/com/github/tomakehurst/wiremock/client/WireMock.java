@@ -30,6 +30,7 @@ import org.skyscreamer.jsonassert.JSONCompareMode;
 import java.util.List;
 
 import static com.github.tomakehurst.wiremock.client.RequestPatternBuilder.allRequests;
+import static javax.xml.bind.DatatypeConverter.printBase64Binary;
 
 
 public class WireMock {
@@ -173,6 +174,18 @@ public class WireMock {
 		return headerStrategy;
 	}
 	
+    public static ValueMatchingStrategy binaryEqualTo(byte[] value) {
+        ValueMatchingStrategy matchingStrategy = new ValueMatchingStrategy();
+        matchingStrategy.setBinaryEqualTo(printBase64Binary(value));
+        return matchingStrategy;
+    }
+
+    public static ValueMatchingStrategy binaryContaining(byte[] value) {
+        ValueMatchingStrategy matchingStrategy = new ValueMatchingStrategy();
+        matchingStrategy.setBinaryContains(printBase64Binary(value));
+        return matchingStrategy;
+    }
+
 	public static ValueMatchingStrategy matching(String value) {
 		ValueMatchingStrategy headerStrategy = new ValueMatchingStrategy();
 		headerStrategy.setMatches(value);
@@ -31,6 +31,20 @@ public class LocalNotifier {
 	public static void set(Notifier notifier) {
 		notifierHolder.set(notifier);
 	}
+
+	/**
+	 * @return false if info messages sent to the current notifier would be discarded, so callers can
+	 * avoid building them
+	 */
+	public static boolean notifierInfoEnabled() {
+		Notifier notifier = notifierHolder.get();
+		if (notifier == null) {
+			return false;
+		} else if (notifier instanceof Log4jNotifier) {
+			return ((Log4jNotifier) notifier).isInfoEnabled();
+		}
+		return true;
+	}
 	
 	private static class NullNotifier implements Notifier {
 
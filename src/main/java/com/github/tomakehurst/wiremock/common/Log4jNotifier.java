@@ -15,12 +15,68 @@
  */
 package com.github.tomakehurst.wiremock.common;
 
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Category;
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
+import org.apache.log4j.spi.HierarchyEventListener;
+
+import java.util.Enumeration;
 
 public class Log4jNotifier implements Notifier {
 	
 	private static final Logger log = Logger.getLogger(Log4jNotifier.class);
 
+	private static volatile Boolean appendersAcceptInfo;
+
+	static {
+		// Appenders, and so their thresholds, are only looked at again once they change
+		LogManager.getLoggerRepository().addHierarchyEventListener(new HierarchyEventListener() {
+			public void addAppenderEvent(Category category, Appender appender) {
+				appendersAcceptInfo = null;
+			}
+
+			public void removeAppenderEvent(Category category, Appender appender) {
+				appendersAcceptInfo = null;
+			}
+		});
+	}
+
+	/**
+	 * @return false if info messages would be discarded, either by the logger's level or by the threshold of
+	 * every appender they would reach
+	 */
+	public boolean isInfoEnabled() {
+		if (!log.isInfoEnabled()) {
+			return false;
+		}
+
+		Boolean accepted = appendersAcceptInfo;
+		if (accepted == null) {
+			accepted = anyAppenderAcceptsInfo();
+			appendersAcceptInfo = accepted;
+		}
+		return accepted;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static boolean anyAppenderAcceptsInfo() {
+		for (Category category = log; category != null; category = category.getParent()) {
+			for (Enumeration<Appender> appenders = category.getAllAppenders(); appenders.hasMoreElements();) {
+				Appender appender = appenders.nextElement();
+				if (!(appender instanceof AppenderSkeleton) || ((AppenderSkeleton) appender).isAsSevereAsThreshold(Level.INFO)) {
+					return true;
+				}
+			}
+			if (!category.getAdditivity()) {
+				break;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public void info(String message) {
 		log.info(message);
@@ -20,6 +20,7 @@ import com.github.tomakehurst.wiremock.global.RequestDelaySpec;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.stubbing.ListStubFilesResult;
 import com.github.tomakehurst.wiremock.stubbing.ListStubMappingsResult;
+import com.github.tomakehurst.wiremock.stubbing.RegexBudgetOverrunsResult;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.github.tomakehurst.wiremock.verification.FindRequestsResult;
 import com.github.tomakehurst.wiremock.verification.VerificationResult;
@@ -40,6 +41,7 @@ public interface Admin {
     void addSocketAcceptDelay(RequestDelaySpec spec);
     void shutdownServer();
     GlobalSettings getGlobalSettings();
+    RegexBudgetOverrunsResult findRegexBudgetOverruns();
 
 
 }
@@ -34,5 +34,8 @@ public interface Options {
     boolean requestJournalDisabled();
     Integer journalCapacity();
     public String bindAddress();
+    boolean compiledMatchersEnabled();
+    int parallelMatchingThreshold();
+    Integer regexStepBudget();
 
 }
@@ -22,6 +22,7 @@ import com.github.tomakehurst.wiremock.global.RequestDelaySpec;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.matchers.string.RegexBudget;
 import com.github.tomakehurst.wiremock.standalone.MappingsLoader;
 import com.github.tomakehurst.wiremock.standalone.StubFilesRepository;
 import com.github.tomakehurst.wiremock.stubbing.*;
@@ -32,6 +33,8 @@ import com.github.tomakehurst.wiremock.verification.VerificationResult;
 import com.github.tomakehurst.wiremock.verification.journal.MutableCapacityJournal;
 import java.util.List;
 
+import static com.google.common.collect.Lists.newArrayList;
+
 public class WireMockApp implements StubServer, Admin {
 
     private final StubMappings stubMappings;
@@ -43,6 +46,7 @@ public class WireMockApp implements StubServer, Admin {
     private final Container container;
     private final MappingsSaver mappingsSaver;
     private final StubFilesRepository stubFilesRepository;
+    private final RegexBudget regexBudget = new RegexBudget();
 
     public WireMockApp(
             RequestDelayControl requestDelayControl,
@@ -51,26 +55,31 @@ public class WireMockApp implements StubServer, Admin {
             MappingsSaver mappingsSaver,
             StubFilesRepository stubFilesRepository,
             Integer journalCapacity,
+            boolean compiledMatchersEnabled,
+            int parallelMatchingThreshold,
+            Integer regexStepBudget,
             Container container) {
         this.requestDelayControl = requestDelayControl;
         this.browserProxyingEnabled = browserProxyingEnabled;
         this.defaultMappingsLoader = defaultMappingsLoader;
         this.mappingsSaver = mappingsSaver;
         globalSettingsHolder = new GlobalSettingsHolder();
-        setupGlobalSettings(journalCapacity);
-        stubMappings = new InMemoryStubMappings();
+        setupGlobalSettings(journalCapacity, regexStepBudget);
+        stubMappings = new InMemoryStubMappings(compiledMatchersEnabled, parallelMatchingThreshold);
         this.stubFilesRepository = stubFilesRepository;
         requestJournal = new MutableCapacityJournal(journalCapacity);
         this.container = container;
         loadDefaultMappings();
     }
 
-    private void setupGlobalSettings(Integer journalCapactiy) {
-        if (journalCapactiy != null) {
+    private void setupGlobalSettings(Integer journalCapactiy, Integer regexStepBudget) {
+        if (journalCapactiy != null || regexStepBudget != null) {
             GlobalSettings settings = new GlobalSettings();
             settings.setJournalCapacity(journalCapactiy);
+            settings.setRegexStepBudget(regexStepBudget);
             globalSettingsHolder.replaceWith(settings);
         }
+        regexBudget.setStepBudget(regexStepBudget);
     }
 
     public GlobalSettingsHolder getGlobalSettingsHolder() {
@@ -87,7 +96,13 @@ public class WireMockApp implements StubServer, Admin {
     
     @Override
     public ResponseDefinition serveStubFor(Request request) {
-        ResponseDefinition responseDefinition = stubMappings.serveFor(request);
+        ResponseDefinition responseDefinition;
+        RegexBudget.set(regexBudget);
+        try {
+            responseDefinition = stubMappings.serveFor(request);
+        } finally {
+            RegexBudget.set(null);
+        }
         requestJournal.requestReceived(request);
         if (!responseDefinition.wasConfigured() && request.isBrowserProxyRequest() && browserProxyingEnabled) {
             return ResponseDefinition.browserProxy(request);
@@ -136,20 +151,26 @@ public class WireMockApp implements StubServer, Admin {
 
     @Override
     public VerificationResult countRequestsMatching(RequestPattern requestPattern) {
+        RegexBudget.set(regexBudget);
         try {
             return VerificationResult.withCount(requestJournal.countRequestsMatching(requestPattern));
         } catch (RequestJournalDisabledException e) {
             return VerificationResult.withRequestJournalDisabled();
+        } finally {
+            RegexBudget.set(null);
         }
     }
 
     @Override
     public FindRequestsResult findRequestsMatching(RequestPattern requestPattern) {
+        RegexBudget.set(regexBudget);
         try {
             List<LoggedRequest> requests = requestJournal.getRequestsMatching(requestPattern);
             return FindRequestsResult.withRequests(requests);
         } catch (RequestJournalDisabledException e) {
             return FindRequestsResult.withRequestJournalDisabled();
+        } finally {
+            RegexBudget.set(null);
         }
     }
 
@@ -162,6 +183,7 @@ public class WireMockApp implements StubServer, Admin {
     public void updateGlobalSettings(GlobalSettings newSettings) {
         globalSettingsHolder.replaceWith(newSettings);
         requestJournal.setCapacity(newSettings.getJournalCapacity());
+        regexBudget.setStepBudget(newSettings.getRegexStepBudget());
     }
 
     @Override
@@ -169,6 +191,17 @@ public class WireMockApp implements StubServer, Admin {
         return globalSettingsHolder.get();
     }
 
+    @Override
+    public RegexBudgetOverrunsResult findRegexBudgetOverruns() {
+        List<StubMapping> overrunMappings = newArrayList();
+        for (StubMapping mapping: stubMappings.getAll()) {
+            if (mapping.getRequest().getRegexBudgetOverruns() > 0) {
+                overrunMappings.add(mapping);
+            }
+        }
+        return new RegexBudgetOverrunsResult(regexBudget.overruns(), overrunMappings);
+    }
+
     @Override
     public void addSocketAcceptDelay(RequestDelaySpec delaySpec) {
         requestDelayControl.setDelay(delaySpec.milliseconds());
@@ -28,6 +28,9 @@ public class WireMockConfiguration implements Options {
     private FileSource filesRoot = new SingleRootFileSource("src/test/resources");
     private Notifier notifier = new Log4jNotifier();
     private Integer journalCapacity = null;
+    private boolean compiledMatchersEnabled = false;
+    private int parallelMatchingThreshold = 0;
+    private Integer regexStepBudget = null;
 
     public static WireMockConfiguration wireMockConfig() {
         return new WireMockConfiguration();
@@ -93,6 +96,21 @@ public class WireMockConfiguration implements Options {
         return this;
     }
 
+    public WireMockConfiguration enableCompiledMatchers(boolean enabled) {
+        this.compiledMatchersEnabled = enabled;
+        return this;
+    }
+
+    public WireMockConfiguration parallelMatchingThreshold(int parallelMatchingThreshold) {
+        this.parallelMatchingThreshold = parallelMatchingThreshold;
+        return this;
+    }
+
+    public WireMockConfiguration regexStepBudget(Integer regexStepBudget) {
+        this.regexStepBudget = regexStepBudget;
+        return this;
+    }
+
     @Override
     public int portNumber() {
         return portNumber;
@@ -144,4 +162,19 @@ public class WireMockConfiguration implements Options {
     public String bindAddress() {
         return bindAddress;
     }
+
+    @Override
+    public boolean compiledMatchersEnabled() {
+        return compiledMatchersEnabled;
+    }
+
+    @Override
+    public int parallelMatchingThreshold() {
+        return parallelMatchingThreshold;
+    }
+
+    @Override
+    public Integer regexStepBudget() {
+        return regexStepBudget;
+    }
 }
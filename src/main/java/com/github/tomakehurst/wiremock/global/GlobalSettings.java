@@ -24,6 +24,7 @@ public class GlobalSettings {
 
 	private Integer fixedDelay;
     private Integer journalCapacity;
+    private Integer regexStepBudget;
 
 	public Integer getFixedDelay() {
 		return fixedDelay;
@@ -41,6 +42,14 @@ public class GlobalSettings {
         this.journalCapacity = journalCapacity;
     }
 
+    public Integer getRegexStepBudget() {
+        return regexStepBudget;
+    }
+
+    public void setRegexStepBudget(Integer regexStepBudget) {
+        this.regexStepBudget = regexStepBudget;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -49,11 +58,12 @@ public class GlobalSettings {
         GlobalSettings that = (GlobalSettings) o;
 
         return Objects.equal(fixedDelay, that.fixedDelay)
-            && Objects.equal(journalCapacity, that.journalCapacity);
+            && Objects.equal(journalCapacity, that.journalCapacity)
+            && Objects.equal(regexStepBudget, that.regexStepBudget);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(fixedDelay, journalCapacity);
+        return Objects.hashCode(fixedDelay, journalCapacity, regexStepBudget);
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+
+/**
+ * A header or parameter name compared without regard to case. The lower case form is worked out once, when
+ * the key is created, and well known header names are looked up in a table of lower case forms rather than
+ * lower cased again each time they are used.
+ */
+public class CaseInsensitiveKey {
+
+    private static final String[] WELL_KNOWN_HEADER_NAMES = {
+            "Accept", "Accept-Charset", "Accept-Encoding", "Accept-Language", "Authorization", "Cache-Control",
+            "Connection", "Content-Encoding", "Content-Length", "Content-Type", "Cookie", "Date", "ETag", "Expect",
+            "Host", "If-Match", "If-Modified-Since", "If-None-Match", "Keep-Alive", "Last-Modified", "Location",
+            "Origin", "Pragma", "Proxy-Connection", "Referer", "Server", "Set-Cookie", "Transfer-Encoding",
+            "User-Agent", "Vary", "X-Forwarded-For", "X-Requested-With"
+    };
+
+    private static final Map<String, String> LOWER_CASE_FORMS = lowerCaseForms();
+
+    private final String key;
+    private final String lowerCaseKey;
+
+    public CaseInsensitiveKey(String key) {
+        this.key = key;
+        this.lowerCaseKey = key != null ? lowerCaseOf(key) : null;
+    }
+
+    private static Map<String, String> lowerCaseForms() {
+        Map<String, String> forms = newHashMap();
+        for (String name: WELL_KNOWN_HEADER_NAMES) {
+            String lowerCaseName = name.toLowerCase().intern();
+            forms.put(name, lowerCaseName);
+            forms.put(lowerCaseName, lowerCaseName);
+        }
+        return ImmutableMap.copyOf(forms);
+    }
+
+    /**
+     * @return the lower case form of the name, without creating a new string if it is a well known header name
+     */
+    public static String lowerCaseOf(String name) {
+        String lowerCaseName = LOWER_CASE_FORMS.get(name);
+        return lowerCaseName != null ? lowerCaseName : name.toLowerCase();
+    }
+
+    public String key() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CaseInsensitiveKey that = (CaseInsensitiveKey) o;
+
+        return lowerCaseKey != null ? lowerCaseKey.equals(that.lowerCaseKey) : that.lowerCaseKey == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return lowerCaseKey != null ? lowerCaseKey.hashCode() : 0;
+    }
+}
@@ -17,6 +17,8 @@ package com.github.tomakehurst.wiremock.http;
 
 import com.google.common.base.Optional;
 
+import java.nio.charset.Charset;
+
 public class ContentTypeHeader extends HttpHeader {
 
 	public static final String KEY = "Content-Type";
@@ -53,4 +55,12 @@ public class ContentTypeHeader extends HttpHeader {
 
 		return Optional.absent();
 	}
+
+    /**
+     * @return the charset named by the header, or the default if the header is absent or doesn't name one
+     */
+    public Charset charsetOr(Charset defaultCharset) {
+        Optional<String> encoding = isPresent() ? encodingPart() : Optional.<String>absent();
+        return encoding.isPresent() ? Charset.forName(encoding.get().trim()) : defaultCharset;
+    }
 }
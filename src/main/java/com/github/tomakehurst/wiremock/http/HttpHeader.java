@@ -89,6 +89,22 @@ public class HttpHeader {
         }
     }
 
+    /**
+     * As {@link #hasValueMatching(PatternMatcher)}, without capturing groups
+     */
+    public boolean hasValueSatisfying(PatternMatcher matcher) {
+        if (matcher == PatternMatcher.none() && !isPresent()) {
+            return true;
+        }
+
+        for (String value: values) {
+            if (matcher.test(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private PatternMatch anyValueMatches(PatternMatcher matcher) {
         for (String value: values) {
             PatternMatch match = matcher.matches(value);
@@ -62,18 +62,18 @@ public class HttpHeaders {
     }
 
     public HttpHeader getHeader(String key) {
-        if (!headers.containsKey(caseInsensitive(key))) {
+        Collection<String> values = headers.get(caseInsensitive(key));
+        if (values.isEmpty()) {
             return HttpHeader.absent(key);
         }
 
-        Collection<String> values = headers.get(caseInsensitive(key));
         return new HttpHeader(key, values);
     }
 
     public ContentTypeHeader getContentTypeHeader() {
         HttpHeader header = getHeader(ContentTypeHeader.KEY);
         if (header.isPresent()) {
-            return new ContentTypeHeader(getHeader(ContentTypeHeader.KEY).firstValue());
+            return new ContentTypeHeader(header.firstValue());
         }
 
         return ContentTypeHeader.absent();
@@ -82,7 +82,7 @@ public class HttpHeaders {
     public Collection<HttpHeader> all() {
         List<HttpHeader> httpHeaderList = newArrayList();
         for (CaseInsensitiveKey key: headers.keySet()) {
-            httpHeaderList.add(new HttpHeader(key.key, headers.get(key)));
+            httpHeaderList.add(new HttpHeader(key.key(), headers.get(key)));
         }
 
         return httpHeaderList;
@@ -91,7 +91,7 @@ public class HttpHeaders {
     public Set<String> keys() {
         return newHashSet(transform(headers.keySet(), new Function<CaseInsensitiveKey, String>() {
             public String apply(CaseInsensitiveKey input) {
-                return input.key;
+                return input.key();
             }
         }));
     }
@@ -123,32 +123,7 @@ public class HttpHeaders {
         return result;
     }
 
-    private CaseInsensitiveKey caseInsensitive(String key) {
+    private static CaseInsensitiveKey caseInsensitive(String key) {
         return new CaseInsensitiveKey(key);
     }
-
-    private static class CaseInsensitiveKey {
-        final String key;
-
-        CaseInsensitiveKey(String key) {
-            this.key = key;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-
-            CaseInsensitiveKey that = (CaseInsensitiveKey) o;
-
-            if (key != null ? !key.toLowerCase().equals(that.key.toLowerCase()) : that.key != null) return false;
-
-            return true;
-        }
-
-        @Override
-        public int hashCode() {
-            return key != null ? key.toLowerCase().hashCode() : 0;
-        }
-    }
 }
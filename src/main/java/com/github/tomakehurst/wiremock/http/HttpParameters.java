@@ -62,18 +62,18 @@ public class HttpParameters {
     }
 
     public HttpParameter getParameter(String key) {
-        if (!parameters.containsKey(caseInsensitive(key))) {
+        Collection<String> values = parameters.get(caseInsensitive(key));
+        if (values.isEmpty()) {
             return HttpParameter.absent(key);
         }
 
-        Collection<String> values = parameters.get(caseInsensitive(key));
         return new HttpParameter(key, values);
     }
 
     public Collection<HttpParameter> all() {
         List<HttpParameter> httpParameterList = newArrayList();
         for (CaseInsensitiveKey key: parameters.keySet()) {
-            httpParameterList.add(new HttpParameter(key.key, parameters.get(key)));
+            httpParameterList.add(new HttpParameter(key.key(), parameters.get(key)));
         }
 
         return httpParameterList;
@@ -82,7 +82,7 @@ public class HttpParameters {
     public Set<String> keys() {
         return newHashSet(transform(parameters.keySet(), new Function<CaseInsensitiveKey, String>() {
             public String apply(CaseInsensitiveKey input) {
-                return input.key;
+                return input.key();
             }
         }));
     }
@@ -114,33 +114,7 @@ public class HttpParameters {
         return result;
     }
 
-    private CaseInsensitiveKey caseInsensitive(String key) {
+    private static CaseInsensitiveKey caseInsensitive(String key) {
         return new CaseInsensitiveKey(key);
     }
-
-    private static class CaseInsensitiveKey {
-        final String key;
-
-        CaseInsensitiveKey(String key) {
-            this.key = key;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-
-            CaseInsensitiveKey that = (CaseInsensitiveKey) o;
-
-            if (key != null ? !key.toLowerCase().equals(that.key.toLowerCase()) : that.key != null) return false;
-
-            return true;
-        }
-
-        @Override
-        public int hashCode() {
-            return key != null ? key.toLowerCase().hashCode() : 0;
-        }
-    }
-
 }
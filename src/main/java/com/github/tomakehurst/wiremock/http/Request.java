@@ -29,6 +29,7 @@ public interface Request {
 	boolean containsHeader(String key);
 	Set<String> getAllHeaderKeys();
 	String getBodyAsString();
+    byte[] getBody();
 	boolean isBrowserProxyRequest();
     HttpParameter parameter(String key);
     HttpParameters getParameters();
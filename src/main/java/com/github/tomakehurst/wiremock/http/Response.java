@@ -111,12 +111,7 @@ public class Response {
 	}
 
     private Charset encodingFromContentTypeHeaderOrUtf8() {
-        ContentTypeHeader contentTypeHeader = headers.getContentTypeHeader();
-        if (contentTypeHeader.isPresent() && contentTypeHeader.encodingPart().isPresent()) {
-            return Charset.forName(contentTypeHeader.encodingPart().get());
-        }
-
-        return UTF_8;
+        return headers.getContentTypeHeader().charsetOr(UTF_8);
     }
 	
 	public boolean wasConfigured() {
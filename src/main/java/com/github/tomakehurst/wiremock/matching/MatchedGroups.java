@@ -41,6 +41,12 @@ public class MatchedGroups {
     }
 
     public MatchedGroups add(MatchedGroups other) {
+        if (other.groups.length == 0) {
+            return this;
+        } else if (groups.length == 0) {
+            return other;
+        }
+
         String[] result = Arrays.copyOf(groups, groups.length + other.groups.length);
         System.arraycopy(other.groups, 0, result, groups.length, other.groups.length);
         return new MatchedGroups(result);
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching;
+
+import static javax.xml.bind.DatatypeConverter.printBase64Binary;
+
+/**
+ * Why part of a request failed to match a stub. Only references are held, so recording a mismatch is cheap;
+ * the message is rendered on demand. Binary bodies are held as bytes and only encoded as base64 when rendered.
+ */
+public class Mismatch {
+
+    public enum Subject { METHOD, HEADER, PARAMETER, BODY, JSON_PATH }
+
+    private final Subject subject;
+    private final String key;
+    private final Object expected;
+    private final Object actual;
+    private final String cause;
+
+    public Mismatch(Subject subject, String key, Object expected, Object actual, String cause) {
+        this.subject = subject;
+        this.key = key;
+        this.expected = expected;
+        this.actual = actual;
+        this.cause = cause;
+    }
+
+    public Subject getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return the header or parameter name, if the mismatch is in one
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public Object getExpected() {
+        return expected;
+    }
+
+    public Object getActual() {
+        return actual;
+    }
+
+    public String render() {
+        switch (subject) {
+            case METHOD:
+                return String.format("Method %s does not match", actual);
+            case HEADER:
+                return String.format("Header %s does not match. For a match, value should %s", key, expected);
+            case PARAMETER:
+                return String.format("Parameter %s does not match. For a match, value should %s", key, expected);
+            case BODY:
+                return String.format("Body does not match: %s",
+                        actual instanceof byte[] ? printBase64Binary((byte[]) actual) : actual);
+            default:
+                return String.format("Warning: JSON path expression '%s' failed to match document '%s' because %s",
+                        expected, actual, jsonPathFailureReason());
+        }
+    }
+
+    private String jsonPathFailureReason() {
+        if ("invalid path".equalsIgnoreCase(cause)) {
+            return "the JSON path didn't match the document structure";
+        } else if ("invalid container object".equalsIgnoreCase(cause)) {
+            return "the JSON document couldn't be parsed";
+        } else {
+            return "of error '" + cause + "'";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
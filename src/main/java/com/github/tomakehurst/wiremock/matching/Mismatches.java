@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching;
+
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifierInfoEnabled;
+
+/**
+ * Where matchers report why a request didn't match. Matching a request against many stubs produces many
+ * mismatches, so nothing is allocated or formatted unless the current notifier would log the message, or the
+ * current thread is recording mismatches to report near misses.
+ */
+public class Mismatches {
+
+    private static final ThreadLocal<List<Mismatch>> recorded = new ThreadLocal<List<Mismatch>>();
+
+    public static void mismatch(Mismatch.Subject subject, String key, Object expected, Object actual) {
+        mismatch(subject, key, expected, actual, null);
+    }
+
+    public static void mismatch(Mismatch.Subject subject, String key, Object expected, Object actual, String cause) {
+        List<Mismatch> recording = recorded.get();
+        boolean notify = notifierInfoEnabled();
+        if (recording == null && !notify) {
+            return;
+        }
+
+        Mismatch mismatch = new Mismatch(subject, key, expected, actual, cause);
+        if (recording != null) {
+            recording.add(mismatch);
+        }
+        if (notify) {
+            notifier().info(mismatch.render());
+        }
+    }
+
+    /**
+     * Records mismatches reported on the current thread until {@link #stopRecording()} is called.
+     */
+    public static void startRecording() {
+        recorded.set(Lists.<Mismatch>newArrayList());
+    }
+
+    public static List<Mismatch> stopRecording() {
+        List<Mismatch> recording = recorded.get();
+        recorded.remove();
+        return recording != null ? recording : Collections.<Mismatch>emptyList();
+    }
+}
@@ -60,6 +60,9 @@ public class PatternMatch {
 
     public PatternMatch and(PatternMatch that) {
         if (this.matched && that.matched) {
+            if (that.groups.toArray().length == 0) {
+                return this;
+            }
             return matched(groups.add(that.groups));
         } else {
             return NOT_MATCHED;
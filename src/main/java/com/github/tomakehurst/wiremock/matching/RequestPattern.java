@@ -13,6 +13,7 @@
  */
 package com.github.tomakehurst.wiremock.matching;
 
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -22,19 +23,27 @@ import com.github.tomakehurst.wiremock.common.Json;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.matching.matchers.request.BodyMatcher;
+import com.github.tomakehurst.wiremock.matching.matchers.request.CompiledRequestMatcher;
+import com.github.tomakehurst.wiremock.matching.matchers.request.CostOrderedRequestMatcher;
 import com.github.tomakehurst.wiremock.matching.matchers.request.HeadersMatcher;
 import com.github.tomakehurst.wiremock.matching.matchers.request.MethodMatcher;
 import com.github.tomakehurst.wiremock.matching.matchers.request.ParametersMatcher;
 import com.github.tomakehurst.wiremock.matching.matchers.request.RequestMatcher;
 import com.github.tomakehurst.wiremock.matching.matchers.request.UrlMatcher;
+import com.github.tomakehurst.wiremock.matching.matchers.string.RegexBudget;
+import com.github.tomakehurst.wiremock.matching.matchers.string.RegexBudgetExceededException;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @JsonSerialize(include = Inclusion.NON_NULL)
 public class RequestPattern {
 
+  private static final int MAX_LOGGED_PATTERN_LENGTH = 200;
+
   private String urlPattern;
   private String url;
   private RequestMethod method;
@@ -43,28 +52,30 @@ public class RequestPattern {
   private Map<String, ValuePattern> parameterPatterns;
 
   @JsonIgnore
-  private RequestMatcher matcher;
+  private volatile RequestMatcher matcher;
+
+  @JsonIgnore
+  private boolean compiledMatcherEnabled;
+
+  @JsonIgnore
+  private final AtomicLong regexBudgetOverruns = new AtomicLong();
 
   public RequestPattern(RequestMethod method, String url, Map<String, ValuePattern> headerPatterns) {
     this.url = url;
     this.method = method;
     this.headerPatterns = headerPatterns;
-    initMatcher();
   }
 
   public RequestPattern(RequestMethod method) {
     this.method = method;
-    initMatcher();
   }
 
   public RequestPattern(RequestMethod method, String url) {
     this.url = url;
     this.method = method;
-    initMatcher();
   }
 
   public RequestPattern() {
-    initMatcher();
   }
 
   public static RequestPattern everything() {
@@ -77,15 +88,97 @@ public class RequestPattern {
     return Json.read(json, RequestPattern.class);
   }
 
-  private void initMatcher() {
-    matcher =
-        UrlMatcher.fromPatternAndUrl(urlPattern, url).and(new MethodMatcher(method))
-            .and(new HeadersMatcher(headerPatterns)).and(new ParametersMatcher(parameterPatterns))
-            .and(new BodyMatcher(bodyPatterns));
+  /**
+   * The matcher is built when first used rather than by every setter, so a pattern bound from JSON is only
+   * built once, when it is complete.
+   */
+  private RequestMatcher matcher() {
+    RequestMatcher current = matcher;
+    if (current == null) {
+      current = buildMatcher();
+      matcher = current;
+    }
+    return current;
+  }
+
+  private RequestMatcher buildMatcher() {
+    if (compiledMatcherEnabled) {
+      Optional<CompiledRequestMatcher> compiledMatcher = CompiledRequestMatcher.compile(urlPattern, url,
+          method, headerPatterns, parameterPatterns, bodyPatterns);
+      if (compiledMatcher.isPresent()) {
+        return compiledMatcher.get();
+      }
+    }
+
+    return new CostOrderedRequestMatcher(UrlMatcher.fromPatternAndUrl(urlPattern, url),
+        new MethodMatcher(method), new HeadersMatcher(headerPatterns),
+        new ParametersMatcher(parameterPatterns), new BodyMatcher(bodyPatterns));
+  }
+
+  private void patternChanged() {
+    matcher = null;
+  }
+
+  /**
+   * Builds the matcher now rather than on first use, so that invalid patterns are reported when the pattern
+   * is added rather than when a request arrives.
+   */
+  public void prepareMatcher() {
+    matcher();
+  }
+
+  /**
+   * Switches this pattern to a {@link CompiledRequestMatcher} where its patterns allow, falling back to the
+   * interpreted matchers where they don't. The pattern stays compiled if it is subsequently modified.
+   */
+  public void compileMatcher() {
+    compiledMatcherEnabled = true;
+    patternChanged();
+    prepareMatcher();
   }
 
   public PatternMatch isMatchedBy(Request request) {
-    return matcher.matches(request);
+    try {
+      return matcher().matches(request);
+    } catch (RegexBudgetExceededException e) {
+      regexBudgetExceeded(e);
+      return PatternMatch.notMatched();
+    }
+  }
+
+  /**
+   * @return whether the request matches, without capturing groups from it
+   */
+  public boolean test(Request request) {
+    try {
+      return matcher().test(request);
+    } catch (RegexBudgetExceededException e) {
+      regexBudgetExceeded(e);
+      return false;
+    }
+  }
+
+  /**
+   * A regex giving up fails the whole pattern, even where it was negated by doesNotMatch
+   */
+  private void regexBudgetExceeded(RegexBudgetExceededException e) {
+    regexBudgetOverruns.incrementAndGet();
+    RegexBudget.recordOverrun();
+    notifier().error(e.getMessage() + " while matching " + abbreviated(toString()));
+  }
+
+  private static String abbreviated(String pattern) {
+    return pattern.length() <= MAX_LOGGED_PATTERN_LENGTH ?
+        pattern :
+        pattern.substring(0, MAX_LOGGED_PATTERN_LENGTH) + "...";
+  }
+
+  /**
+   * @return the number of times matching gave up because a regex exceeded the {@link RegexBudget}
+   */
+  @JsonIgnore
+  public long getRegexBudgetOverruns() {
+    return regexBudgetOverruns.get();
   }
 
   public String getUrlPattern() {
@@ -94,7 +187,7 @@ public class RequestPattern {
 
   public void setUrlPattern(String urlPattern) {
     this.urlPattern = urlPattern;
-    initMatcher();
+    patternChanged();
   }
 
   public RequestMethod getMethod() {
@@ -103,7 +196,7 @@ public class RequestPattern {
 
   public void setMethod(RequestMethod method) {
     this.method = method;
-    initMatcher();
+    patternChanged();
   }
 
   public Map<String, ValuePattern> getHeaders() {
@@ -116,12 +209,12 @@ public class RequestPattern {
     }
 
     headerPatterns.put(key, pattern);
-    initMatcher();
+    patternChanged();
   }
 
   public void setHeaders(Map<String, ValuePattern> headers) {
     this.headerPatterns = headers;
-    initMatcher();
+    patternChanged();
   }
 
   public String getUrl() {
@@ -130,7 +223,7 @@ public class RequestPattern {
 
   public void setUrl(String url) {
     this.url = url;
-    initMatcher();
+    patternChanged();
   }
 
   public List<ValuePattern> getBodyPatterns() {
@@ -139,7 +232,7 @@ public class RequestPattern {
 
   public void setBodyPatterns(List<ValuePattern> bodyPatterns) {
     this.bodyPatterns = bodyPatterns;
-    initMatcher();
+    patternChanged();
   }
 
   public Map<String, ValuePattern> getParameters() {
@@ -152,12 +245,12 @@ public class RequestPattern {
     }
 
     parameterPatterns.put(key, pattern);
-    initMatcher();
+    patternChanged();
   }
 
   public void setParameters(Map<String, ValuePattern> parameters) {
     this.parameterPatterns = parameters;
-    initMatcher();
+    patternChanged();
   }
 
   @Override
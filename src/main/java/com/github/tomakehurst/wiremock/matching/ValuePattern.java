@@ -22,6 +22,9 @@ import com.github.tomakehurst.wiremock.matching.matchers.string.PatternMatcher;
 import com.google.common.base.Objects;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 
+import static javax.xml.bind.DatatypeConverter.parseBase64Binary;
+import static javax.xml.bind.DatatypeConverter.printBase64Binary;
+
 @JsonSerialize(include=Inclusion.NON_NULL)
 public class ValuePattern {
 
@@ -30,38 +33,52 @@ public class ValuePattern {
     private JSONCompareMode jsonCompareMode;
 	private String equalTo;
 	private String contains;
+    private String binaryEqualTo;
+    private String binaryContains;
 	private String matches;
 	private String doesNotMatch;
     private Boolean absent;
     private String matchesJsonPaths;
 
     @JsonIgnore
-    private PatternMatcher matcher;
+    private volatile PatternMatcher matcher;
 
-    private void initMatcher() {
+    /**
+     * The matcher is built when first used rather than by every setter, so a pattern bound from JSON is only
+     * built once, when it is complete.
+     */
+    private void patternChanged() {
         checkNoMoreThanOneMatchTypeSpecified();
+        matcher = null;
+    }
+
+    private PatternMatcher buildMatcher() {
         if (absent != null) {
             if (absent) {
-                matcher = PatternMatcher.none();
+                return PatternMatcher.none();
             } else {
-                matcher = PatternMatcher.any();
+                return PatternMatcher.any();
             }
         } else if (equalToJson != null) {
-            matcher = PatternMatcher.equalsToJson(equalToJson, jsonCompareMode);
+            return PatternMatcher.equalsToJson(equalToJson, jsonCompareMode);
         } else if (equalToXml != null) {
-            matcher = PatternMatcher.equalsToXml(equalToXml);
+            return PatternMatcher.equalsToXml(equalToXml);
         } else if (equalTo != null) {
-            matcher = PatternMatcher.equalsTo(equalTo);
+            return PatternMatcher.equalsTo(equalTo);
         } else if (contains != null) {
-            matcher = PatternMatcher.contains(contains);
+            return PatternMatcher.contains(contains);
+        } else if (binaryEqualTo != null) {
+            return PatternMatcher.binaryEqualTo(parseBase64Binary(binaryEqualTo));
+        } else if (binaryContains != null) {
+            return PatternMatcher.binaryContains(parseBase64Binary(binaryContains));
         } else if (matches != null) {
-            matcher = PatternMatcher.regex(matches);
+            return PatternMatcher.regex(matches);
         } else if (doesNotMatch != null) {
-            matcher = PatternMatcher.regex(doesNotMatch).not();
+            return PatternMatcher.regex(doesNotMatch).not();
         } else if (matchesJsonPaths != null) {
-            matcher = PatternMatcher.jsonPath(matchesJsonPaths);
+            return PatternMatcher.jsonPath(matchesJsonPaths);
         } else {
-            matcher = PatternMatcher.any();
+            return PatternMatcher.any();
         }
     }
 
@@ -72,8 +89,8 @@ public class ValuePattern {
     }
 
     private int countAllAttributes() {
-        return count(equalToJson, equalToXml, equalTo, contains, matches, doesNotMatch, absent,
-                matchesJsonPaths);
+        return count(equalToJson, equalToXml, equalTo, contains, binaryEqualTo, binaryContains, matches,
+                doesNotMatch, absent, matchesJsonPaths);
     }
 
     private int count(Object... objects) {
@@ -118,6 +135,18 @@ public class ValuePattern {
 		return valuePattern;
 	}
 	
+    public static ValuePattern binaryEqualTo(byte[] value) {
+        ValuePattern valuePattern = new ValuePattern();
+        valuePattern.setBinaryEqualTo(printBase64Binary(value));
+        return valuePattern;
+    }
+
+    public static ValuePattern binaryContaining(byte[] value) {
+        ValuePattern valuePattern = new ValuePattern();
+        valuePattern.setBinaryContains(printBase64Binary(value));
+        return valuePattern;
+    }
+
 	public static ValuePattern matches(String value) {
 		ValuePattern valuePattern = new ValuePattern();
 		valuePattern.setMatches(value);
@@ -132,7 +161,7 @@ public class ValuePattern {
 	
 	public PatternMatch isMatchFor(String value) {
 		checkOneMatchTypeSpecified();
-        return matcher.matches(value);
+        return getMatcher().matches(value);
     }
 	
     private void checkOneMatchTypeSpecified() {
@@ -143,47 +172,63 @@ public class ValuePattern {
 	
 	public void setEqualTo(String equalTo) {
 		this.equalTo = equalTo;
-        initMatcher();
+        patternChanged();
 	}
 	
     public void setEqualToJson(String equalToJson) {
         this.equalToJson = equalToJson;
-        initMatcher();
+        patternChanged();
     }
     
     public void setEqualToXml(String equalToXml) {
         this.equalToXml = equalToXml;
-        initMatcher();
+        patternChanged();
     }
     
 	public void setContains(String contains) {
 		this.contains = contains;
-        initMatcher();
+        patternChanged();
 	}
 	
+    /**
+     * @param binaryEqualTo the expected bytes, base64 encoded
+     */
+    public void setBinaryEqualTo(String binaryEqualTo) {
+        this.binaryEqualTo = binaryEqualTo;
+        patternChanged();
+    }
+
+    /**
+     * @param binaryContains the bytes that must be contained, base64 encoded
+     */
+    public void setBinaryContains(String binaryContains) {
+        this.binaryContains = binaryContains;
+        patternChanged();
+    }
+
 	public void setMatches(String matches) {
 		this.matches = matches;
-        initMatcher();
+        patternChanged();
 	}
 
 	public void setDoesNotMatch(String doesNotMatch) {
 		this.doesNotMatch = doesNotMatch;
-        initMatcher();
+        patternChanged();
 	}
 
     public void setAbsent(Boolean absent) {
         this.absent = absent;
-        initMatcher();
+        patternChanged();
     }
 
     public void setMatchesJsonPaths(String matchesJsonPaths) {
         this.matchesJsonPaths = matchesJsonPaths;
-        initMatcher();
+        patternChanged();
     }
 
     public void setJsonCompareMode(JSONCompareMode jsonCompareMode) {
         this.jsonCompareMode = jsonCompareMode;
-        initMatcher();
+        patternChanged();
     }
 
     public String getEqualTo() {
@@ -206,6 +251,14 @@ public class ValuePattern {
 		return contains;
 	}
 
+    public String getBinaryEqualTo() {
+        return binaryEqualTo;
+    }
+
+    public String getBinaryContains() {
+        return binaryContains;
+    }
+
 	public String getMatches() {
 		return matches;
 	}
@@ -228,12 +281,12 @@ public class ValuePattern {
 	
 	@Override
 	public String toString() {
-        return matcher.toString();
+        return getMatcher().toString();
 	}
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(absent, contains, doesNotMatch, equalTo, equalToJson, 
+        return Objects.hashCode(absent, contains, binaryEqualTo, binaryContains, doesNotMatch, equalTo, equalToJson,
                 equalToXml, matches, matchesJsonPaths);
     }
 
@@ -251,6 +304,8 @@ public class ValuePattern {
         ValuePattern other = (ValuePattern) obj;
         return Objects.equal(absent, other.absent)
                 && Objects.equal(contains, other.contains)
+                && Objects.equal(binaryEqualTo, other.binaryEqualTo)
+                && Objects.equal(binaryContains, other.binaryContains)
                 && Objects.equal(doesNotMatch, other.doesNotMatch)
                 && Objects.equal(equalTo, other.equalTo)
                 && Objects.equal(equalToJson, other.equalToJson)
@@ -260,6 +315,11 @@ public class ValuePattern {
     }
 
     public PatternMatcher getMatcher() {
-        return matcher;
+        PatternMatcher current = matcher;
+        if (current == null) {
+            current = buildMatcher();
+            matcher = current;
+        }
+        return current;
     }
 }
@@ -40,4 +40,14 @@ public class AndRequestMatcher extends RequestMatcher {
         }
     }
 
+    @Override
+    public boolean test(Request request) {
+        return m1.test(request) && m2.test(request);
+    }
+
+    @Override
+    public int estimatedCost() {
+        return m1.estimatedCost() + m2.estimatedCost();
+    }
+
 }
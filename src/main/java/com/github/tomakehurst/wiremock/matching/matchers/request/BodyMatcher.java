@@ -19,32 +19,47 @@ package com.github.tomakehurst.wiremock.matching.matchers.request;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.matching.PatternMatch;
 import com.github.tomakehurst.wiremock.matching.ValuePattern;
+import com.github.tomakehurst.wiremock.matching.matchers.string.BinaryPatternMatcher;
 import com.github.tomakehurst.wiremock.matching.matchers.string.PatternMatcher;
 
 import java.util.List;
 
-import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.BODY;
+import static com.github.tomakehurst.wiremock.matching.Mismatches.mismatch;
+import static com.google.common.collect.Lists.newArrayList;
 
+
+/**
+ * Binary patterns are checked against the raw body, so it is only decoded if a text pattern needs it.
+ */
 public class BodyMatcher extends RequestMatcher {
 
-    private PatternMatcher matcher;
+    private static final int BODY_READING_COST = 8;
 
-    public BodyMatcher(List<ValuePattern> bodyPatterns) {
-        matcher = getMatcher(bodyPatterns);
-    }
+    private final PatternMatcher matcher;
+    private final List<BinaryPatternMatcher> binaryMatchers = newArrayList();
 
-    private static PatternMatcher getMatcher(List<ValuePattern> bodyPatterns) {
+    public BodyMatcher(List<ValuePattern> bodyPatterns) {
         PatternMatcher matcher = PatternMatcher.any();
         if (bodyPatterns != null) {
             for (ValuePattern bodyPattern : bodyPatterns) {
-                matcher = matcher.and(bodyPattern.getMatcher());
+                PatternMatcher bodyMatcher = bodyPattern.getMatcher();
+                if (bodyMatcher instanceof BinaryPatternMatcher) {
+                    binaryMatchers.add((BinaryPatternMatcher) bodyMatcher);
+                } else {
+                    matcher = matcher.and(bodyMatcher);
+                }
             }
         }
-        return matcher;
+        this.matcher = matcher;
     }
 
     @Override
     public PatternMatch matches(Request request) {
+        if (!binaryMatchersMatch(request)) {
+            return PatternMatch.notMatched();
+        }
+
         //Done to avoid getting value in case is slow
         if (matcher == PatternMatcher.any() || matcher == PatternMatcher.none()) {
             return matcher.matches("");
@@ -53,9 +68,54 @@ public class BodyMatcher extends RequestMatcher {
         String body = request.getBodyAsString();
         PatternMatch match = matcher.matches(body);
         if (!match.isMatched()) {
-            notifier().info(String.format("Body does not match: %s", body));
+            mismatch(BODY, null, matcher, body);
         }
         return match;
     }
 
+    @Override
+    public boolean test(Request request) {
+        if (!binaryMatchersMatch(request)) {
+            return false;
+        }
+
+        if (matcher == PatternMatcher.any() || matcher == PatternMatcher.none()) {
+            return matcher.test("");
+        }
+
+        String body = request.getBodyAsString();
+        boolean matched = matcher.test(body);
+        if (!matched) {
+            mismatch(BODY, null, matcher, body);
+        }
+        return matched;
+    }
+
+    private boolean binaryMatchersMatch(Request request) {
+        if (binaryMatchers.isEmpty()) {
+            return true;
+        }
+
+        byte[] body = request.getBody();
+        for (BinaryPatternMatcher binaryMatcher: binaryMatchers) {
+            if (!binaryMatcher.test(body)) {
+                mismatch(BODY, null, binaryMatcher, body);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int estimatedCost() {
+        int cost = binaryMatchers.isEmpty() ? PatternMatcher.FREE : BODY_READING_COST;
+        for (BinaryPatternMatcher binaryMatcher: binaryMatchers) {
+            cost += binaryMatcher.estimatedCost();
+        }
+        if (matcher == PatternMatcher.any() || matcher == PatternMatcher.none()) {
+            return cost;
+        }
+        return cost + BODY_READING_COST + matcher.estimatedCost();
+    }
+
 }
@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.request;
+
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.MatchedGroups;
+import com.github.tomakehurst.wiremock.matching.PatternMatch;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
+import com.github.tomakehurst.wiremock.matching.matchers.string.InternedPatterns;
+import com.github.tomakehurst.wiremock.matching.matchers.string.PatternMatcher;
+import com.github.tomakehurst.wiremock.matching.matchers.string.RegexBudget;
+import com.github.tomakehurst.wiremock.matching.matchers.string.RegexLiterals;
+import com.google.common.base.Optional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.BODY;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.HEADER;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.METHOD;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.PARAMETER;
+import static com.github.tomakehurst.wiremock.matching.Mismatches.mismatch;
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * A request pattern flattened into arrays of checks of a single final type, evaluated in a fixed cheap-first
+ * order by straight-line code. Unlike the tree of matchers built by
+ * {@link com.github.tomakehurst.wiremock.matching.RequestPattern} every call site here is monomorphic,
+ * so the JIT can inline the whole match.
+ *
+ * Only equality, contains, regex and absence checks can be flattened. Patterns using JSON, XML or JsonPath
+ * matching can't be compiled and should keep using the interpreted matchers.
+ */
+public final class CompiledRequestMatcher extends RequestMatcher {
+
+    private static final Check[] NO_CHECKS = new Check[0];
+
+    private final RequestMethod method;
+    private final Check urlCheck;
+    private final String[] headerKeys;
+    private final Check[] headerChecks;
+    private final String[] parameterKeys;
+    private final Check[] parameterChecks;
+    private final Check[] bodyChecks;
+    private final boolean bodyNeverMatches;
+
+    private CompiledRequestMatcher(RequestMethod method,
+                                   Check urlCheck,
+                                   String[] headerKeys,
+                                   Check[] headerChecks,
+                                   String[] parameterKeys,
+                                   Check[] parameterChecks,
+                                   Check[] bodyChecks,
+                                   boolean bodyNeverMatches) {
+        this.method = method == ANY ? null : method;
+        this.urlCheck = urlCheck;
+        this.headerKeys = headerKeys;
+        this.headerChecks = headerChecks;
+        this.parameterKeys = parameterKeys;
+        this.parameterChecks = parameterChecks;
+        this.bodyChecks = bodyChecks;
+        this.bodyNeverMatches = bodyNeverMatches;
+    }
+
+    /**
+     * @return the compiled matcher, or absent if the patterns use matching that can't be compiled
+     */
+    public static Optional<CompiledRequestMatcher> compile(String urlPattern,
+                                                           String url,
+                                                           RequestMethod method,
+                                                           Map<String, ValuePattern> headerPatterns,
+                                                           Map<String, ValuePattern> parameterPatterns,
+                                                           List<ValuePattern> bodyPatterns) {
+        if (url != null && urlPattern != null) {
+            throw new IllegalStateException("URL and URL pattern may not be set simultaneously");
+        }
+
+        Check urlCheck = url != null ? new Check(Check.EQUAL, url, null) :
+                urlPattern != null ? new Check(Check.REGEX, null, InternedPatterns.regex(urlPattern)) :
+                Check.ANY_VALUE;
+
+        List<String> headerKeys = newArrayList();
+        List<Check> headerChecks = newArrayList();
+        if (!compileKeyedPatterns(headerPatterns, headerKeys, headerChecks)) {
+            return Optional.absent();
+        }
+
+        List<String> parameterKeys = newArrayList();
+        List<Check> parameterChecks = newArrayList();
+        if (!compileKeyedPatterns(parameterPatterns, parameterKeys, parameterChecks)) {
+            return Optional.absent();
+        }
+
+        // Mirrors how BodyMatcher combines its patterns: 'any' is dropped, and a leading 'absent' never matches
+        List<Check> bodyChecks = newArrayList();
+        boolean bodyNeverMatches = false;
+        if (bodyPatterns != null) {
+            for (ValuePattern bodyPattern: bodyPatterns) {
+                Check check = Check.from(bodyPattern.getMatcher(), bodyPattern);
+                if (check == null) {
+                    return Optional.absent();
+                } else if (check.kind == Check.ABSENT && bodyChecks.isEmpty()) {
+                    bodyNeverMatches = true;
+                } else if (check.kind != Check.ANY) {
+                    bodyChecks.add(check);
+                }
+            }
+        }
+
+        return Optional.of(new CompiledRequestMatcher(
+                method,
+                urlCheck,
+                headerKeys.toArray(new String[headerKeys.size()]),
+                headerChecks.toArray(NO_CHECKS),
+                parameterKeys.toArray(new String[parameterKeys.size()]),
+                parameterChecks.toArray(NO_CHECKS),
+                bodyChecks.toArray(NO_CHECKS),
+                bodyNeverMatches));
+    }
+
+    private static boolean compileKeyedPatterns(Map<String, ValuePattern> patterns, List<String> keys, List<Check> checks) {
+        if (patterns == null) {
+            return true;
+        }
+
+        for (Map.Entry<String, ValuePattern> entry: patterns.entrySet()) {
+            ValuePattern pattern = entry.getValue();
+            Check check = pattern == null ? Check.ABSENT_VALUE : Check.from(pattern.getMatcher(), pattern);
+            if (check == null) {
+                return false;
+            }
+
+            keys.add(entry.getKey());
+            checks.add(check);
+        }
+
+        return true;
+    }
+
+    @Override
+    public PatternMatch matches(Request request) {
+        MatchedGroups groups = evaluate(request, true);
+        if (groups == null) {
+            return PatternMatch.notMatched();
+        }
+        return groups.toArray().length > 0 ? PatternMatch.matched(groups) : PatternMatch.matched();
+    }
+
+    @Override
+    public boolean test(Request request) {
+        return evaluate(request, false) != null;
+    }
+
+    /**
+     * @return the groups captured in URL, header, parameter then body order, or null if the request doesn't match
+     */
+    private MatchedGroups evaluate(Request request, boolean captureGroups) {
+        if (method != null && request.getMethod() != method) {
+            mismatch(METHOD, null, method, request.getMethod());
+            return null;
+        }
+
+        MatchedGroups groups = MatchedGroups.noGroups();
+        String[] urlGroups = urlCheck.groupsOf(request.getUrl(), captureGroups);
+        if (urlGroups == null) {
+            return null;
+        }
+        groups = withGroups(groups, urlGroups);
+
+        for (int i = 0; i < headerChecks.length; i++) {
+            HttpHeader header = request.header(headerKeys[i]);
+            String[] headerGroups = headerChecks[i].groupsOfAnyValue(header.isPresent() ? header.values() : null, captureGroups);
+            if (headerGroups == null) {
+                mismatch(HEADER, headerKeys[i], headerChecks[i], header);
+                return null;
+            }
+            groups = withGroups(groups, headerGroups);
+        }
+
+        for (int i = 0; i < parameterChecks.length; i++) {
+            HttpParameter parameter = request.parameter(parameterKeys[i]);
+            String[] parameterGroups = parameterChecks[i].groupsOfAnyValue(parameter.isPresent() ? parameter.values() : null, captureGroups);
+            if (parameterGroups == null) {
+                mismatch(PARAMETER, parameterKeys[i], parameterChecks[i], parameter);
+                return null;
+            }
+            groups = withGroups(groups, parameterGroups);
+        }
+
+        if (bodyNeverMatches) {
+            return null;
+        }
+
+        if (bodyChecks.length > 0) {
+            String body = request.getBodyAsString();
+            for (Check check: bodyChecks) {
+                String[] bodyGroups = check.groupsOf(body, captureGroups);
+                if (bodyGroups == null) {
+                    mismatch(BODY, null, check, body);
+                    return null;
+                }
+                groups = withGroups(groups, bodyGroups);
+            }
+        }
+
+        return groups;
+    }
+
+    private static MatchedGroups withGroups(MatchedGroups groups, String[] newGroups) {
+        return newGroups.length > 0 ? groups.add(new MatchedGroups(newGroups)) : groups;
+    }
+
+    @Override
+    public int estimatedCost() {
+        int cost = method == null ? PatternMatcher.FREE : 1;
+        cost += urlCheck.estimatedCost();
+        for (Check check: headerChecks) {
+            cost += check.estimatedCost();
+        }
+        for (Check check: parameterChecks) {
+            cost += check.estimatedCost();
+        }
+        for (Check check: bodyChecks) {
+            cost += check.estimatedCost();
+        }
+        return cost;
+    }
+
+    /**
+     * A single string check. The kind is switched on rather than dispatched virtually.
+     */
+    private static final class Check {
+
+        static final int ANY = 0;
+        static final int ABSENT = 1;
+        static final int EQUAL = 2;
+        static final int CONTAINS = 3;
+        static final int REGEX = 4;
+        static final int NOT_REGEX = 5;
+
+        static final Check ANY_VALUE = new Check(ANY, null, null);
+        static final Check ABSENT_VALUE = new Check(ABSENT, null, null);
+
+        private static final String[] NO_GROUPS = new String[0];
+
+        final int kind;
+        private final String operand;
+        private final Pattern pattern;
+        private final String[] requiredLiterals;
+
+        Check(int kind, String operand, Pattern pattern) {
+            this.kind = kind;
+            this.operand = operand;
+            this.pattern = pattern;
+            this.requiredLiterals = pattern != null ? RegexLiterals.requiredLiteralsOf(pattern.pattern()) : null;
+        }
+
+        static Check from(PatternMatcher matcher, ValuePattern pattern) {
+            if (matcher == PatternMatcher.any()) {
+                return ANY_VALUE;
+            } else if (matcher == PatternMatcher.none()) {
+                return ABSENT_VALUE;
+            } else if (pattern.getEqualTo() != null) {
+                return new Check(EQUAL, pattern.getEqualTo(), null);
+            } else if (pattern.getContains() != null) {
+                return new Check(CONTAINS, pattern.getContains(), null);
+            } else if (pattern.getMatches() != null) {
+                return new Check(REGEX, null, InternedPatterns.regex(pattern.getMatches()));
+            } else if (pattern.getDoesNotMatch() != null) {
+                return new Check(NOT_REGEX, null, InternedPatterns.regex(pattern.getDoesNotMatch()));
+            }
+            return null;
+        }
+
+        /**
+         * @return the groups captured from the first matching value, or null if none match. An absent
+         * value only matches an absence check.
+         */
+        String[] groupsOfAnyValue(List<String> values, boolean captureGroups) {
+            if (values == null) {
+                return kind == ABSENT ? NO_GROUPS : null;
+            }
+            for (String value: values) {
+                String[] groups = groupsOf(value, captureGroups);
+                if (groups != null) {
+                    return groups;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the groups captured from the value, or null if it doesn't match
+         */
+        String[] groupsOf(String value, boolean captureGroups) {
+            switch (kind) {
+                case ANY:
+                    return NO_GROUPS;
+                case ABSENT:
+                    return value == null ? NO_GROUPS : null;
+                case EQUAL:
+                    return operand.equals(value) ? NO_GROUPS : null;
+                case CONTAINS:
+                    return value.contains(operand) ? NO_GROUPS : null;
+                case REGEX:
+                    if (!RegexLiterals.containsAll(value, requiredLiterals)) {
+                        return null;
+                    }
+                    Matcher matcher = pattern.matcher(RegexBudget.budgeted(value));
+                    if (!matcher.matches()) {
+                        return null;
+                    }
+                    if (!captureGroups || matcher.groupCount() == 0) {
+                        return NO_GROUPS;
+                    }
+                    String[] groups = new String[matcher.groupCount()];
+                    for (int i = 0; i < groups.length; i++) {
+                        groups[i] = matcher.group(i + 1);
+                    }
+                    return groups;
+                case NOT_REGEX:
+                    return RegexLiterals.containsAll(value, requiredLiterals) && pattern.matcher(RegexBudget.budgeted(value)).matches() ? null : NO_GROUPS;
+                default:
+                    throw new IllegalStateException("Unknown check kind " + kind);
+            }
+        }
+
+        int estimatedCost() {
+            switch (kind) {
+                case EQUAL:
+                    return PatternMatcher.STRING_COMPARISON_COST;
+                case CONTAINS:
+                    return PatternMatcher.STRING_SEARCH_COST;
+                case REGEX:
+                case NOT_REGEX:
+                    return PatternMatcher.REGEX_COST;
+                default:
+                    return PatternMatcher.FREE;
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case ANY:
+                    return "any";
+                case ABSENT:
+                    return "none";
+                case EQUAL:
+                    return "equal " + operand;
+                case CONTAINS:
+                    return "contains " + operand;
+                case REGEX:
+                    return "matches " + pattern;
+                default:
+                    return "not (matches " + pattern + ")";
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.request;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.MatchedGroups;
+import com.github.tomakehurst.wiremock.matching.PatternMatch;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Evaluates a chain of request matchers cheapest and most selective first, rather than in declaration order.
+ * Each matcher is ranked by its estimated cost divided by the probability that it rejects a request, so a
+ * cheap check that usually fails runs before an expensive check that usually passes.
+ *
+ * Reject rates are observed on a sample of the requests matched, chosen by their identity hash so choosing
+ * needs no shared state, and counted atomically. The thread that takes the count of samples to the reorder
+ * interval recalculates the order and publishes it, so evaluations never see a partly built order and
+ * unsampled evaluations write nothing shared.
+ *
+ * Matched groups are always combined in declaration order, so the groups seen by response templates don't depend
+ * on the evaluation order.
+ */
+public class CostOrderedRequestMatcher extends RequestMatcher {
+
+    static final int REORDER_INTERVAL = 64;
+    private static final int DEFAULT_SAMPLE_INTERVAL = 16;
+    private static final int MAX_OBSERVATIONS = 1 << 20;
+
+    private final RequestMatcher[] matchers;
+    private final int[] costs;
+    private final int sampleMask;
+    private final AtomicIntegerArray evaluations;
+    private final AtomicIntegerArray rejections;
+    private final AtomicInteger samplesSinceReorder = new AtomicInteger();
+    private volatile int[] evaluationOrder;
+
+    public CostOrderedRequestMatcher(RequestMatcher... matchers) {
+        this(DEFAULT_SAMPLE_INTERVAL, matchers);
+    }
+
+    /**
+     * @param sampleInterval observe roughly one in this many requests. Must be a power of two.
+     */
+    CostOrderedRequestMatcher(int sampleInterval, RequestMatcher... matchers) {
+        this.matchers = matchers;
+        this.sampleMask = sampleInterval - 1;
+        costs = new int[matchers.length];
+        for (int i = 0; i < matchers.length; i++) {
+            costs[i] = matchers[i].estimatedCost();
+        }
+        evaluations = new AtomicIntegerArray(matchers.length);
+        rejections = new AtomicIntegerArray(matchers.length);
+        reorder();
+    }
+
+    @Override
+    public PatternMatch matches(Request request) {
+        boolean sampled = isSampled(request);
+        PatternMatch[] groupedResults = null;
+
+        try {
+            for (int index: evaluationOrder) {
+                PatternMatch match = matchers[index].matches(request);
+                if (sampled) {
+                    recordOutcome(index, match.isMatched());
+                }
+                if (!match.isMatched()) {
+                    return match;
+                }
+
+                // Only matches capturing groups need keeping, to combine in declaration order
+                if (match.getGroups().toArray().length > 0) {
+                    if (groupedResults == null) {
+                        groupedResults = new PatternMatch[matchers.length];
+                    }
+                    groupedResults[index] = match;
+                }
+            }
+        } finally {
+            if (sampled) {
+                countSample();
+            }
+        }
+
+        return groupedResults != null ? combineInDeclarationOrder(groupedResults) : PatternMatch.matched();
+    }
+
+    @Override
+    public boolean test(Request request) {
+        boolean sampled = isSampled(request);
+        try {
+            for (int index: evaluationOrder) {
+                boolean matched = matchers[index].test(request);
+                if (sampled) {
+                    recordOutcome(index, matched);
+                }
+                if (!matched) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            if (sampled) {
+                countSample();
+            }
+        }
+    }
+
+    private boolean isSampled(Request request) {
+        return (System.identityHashCode(request) & sampleMask) == 0;
+    }
+
+    private void countSample() {
+        int samples = samplesSinceReorder.incrementAndGet();
+        if (samples >= REORDER_INTERVAL && samplesSinceReorder.compareAndSet(samples, 0)) {
+            reorder();
+        }
+    }
+
+    private void recordOutcome(int index, boolean matched) {
+        evaluations.incrementAndGet(index);
+        if (!matched) {
+            rejections.incrementAndGet(index);
+        }
+    }
+
+    private static PatternMatch combineInDeclarationOrder(PatternMatch[] groupedResults) {
+        MatchedGroups groups = MatchedGroups.noGroups();
+        for (PatternMatch result: groupedResults) {
+            if (result != null) {
+                groups = groups.add(result.getGroups());
+            }
+        }
+        return PatternMatch.matched(groups);
+    }
+
+    /**
+     * Recalculates the evaluation order from the estimated costs and the reject rates observed so far, and
+     * publishes it. Matchers with equal rank keep their declaration order.
+     */
+    void reorder() {
+        final double[] ranks = new double[matchers.length];
+        Integer[] order = new Integer[matchers.length];
+        for (int i = 0; i < matchers.length; i++) {
+            ageObservations(i);
+            ranks[i] = costs[i] / estimatedRejectRate(i);
+            order[i] = i;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer one, Integer two) {
+                return Double.compare(ranks[one], ranks[two]);
+            }
+        });
+
+        int[] newOrder = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            newOrder[i] = order[i];
+        }
+        evaluationOrder = newOrder;
+    }
+
+    private void ageObservations(int index) {
+        // Halving keeps the rates responsive to change. Counts added meanwhile survive, so it stays approximate
+        int observed = evaluations.get(index);
+        if (observed >= MAX_OBSERVATIONS) {
+            evaluations.addAndGet(index, -observed / 2);
+            rejections.addAndGet(index, -rejections.get(index) / 2);
+        }
+    }
+
+    private double estimatedRejectRate(int index) {
+        // Smoothed so that unobserved matchers start at an even chance and no rate is ever zero
+        return (rejections.get(index) + 1.0) / (evaluations.get(index) + 2.0);
+    }
+
+    int[] evaluationOrder() {
+        return evaluationOrder.clone();
+    }
+
+    @Override
+    public int estimatedCost() {
+        int cost = 0;
+        for (int matcherCost: costs) {
+            cost += matcherCost;
+        }
+        return cost;
+    }
+
+}
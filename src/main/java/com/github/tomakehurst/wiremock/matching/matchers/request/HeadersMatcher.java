@@ -25,10 +25,14 @@ import com.google.common.collect.ImmutableMap;
 
 import java.util.Map;
 
-import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.HEADER;
+import static com.github.tomakehurst.wiremock.matching.Mismatches.mismatch;
+
 
 public class HeadersMatcher extends RequestMatcher {
 
+    private static final int HEADER_LOOKUP_COST = 1;
+
     private final Map<String, PatternMatcher> matchers;
 
     public HeadersMatcher(Map<String,ValuePattern> headerPatterns) {
@@ -56,16 +60,38 @@ public class HeadersMatcher extends RequestMatcher {
             HttpHeader header = request.header(matcher.getKey());
             PatternMatch match = header.hasValueMatching(matcher.getValue());
             if (!match.isMatched()) {
-                notifier().info(String.format(
-                        "Header %s does not match. For a match, value should %s",
-                        matcher.getKey(),
-                        matcher.getValue().toString()));
+                notifyMismatch(matcher);
                 return match;
             } else {
-                matched.and(match);
+                matched = matched.and(match);
             }
         }
         return matched;
     }
 
+    @Override
+    public boolean test(Request request) {
+        for (Map.Entry<String, PatternMatcher> matcher: matchers.entrySet()) {
+            HttpHeader header = request.header(matcher.getKey());
+            if (!header.hasValueSatisfying(matcher.getValue())) {
+                notifyMismatch(matcher);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void notifyMismatch(Map.Entry<String, PatternMatcher> matcher) {
+        mismatch(HEADER, matcher.getKey(), matcher.getValue(), null);
+    }
+
+    @Override
+    public int estimatedCost() {
+        int cost = PatternMatcher.FREE;
+        for (PatternMatcher matcher: matchers.values()) {
+            cost += HEADER_LOOKUP_COST + matcher.estimatedCost();
+        }
+        return cost;
+    }
+
 }
@@ -19,12 +19,16 @@ package com.github.tomakehurst.wiremock.matching.matchers.request;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.matching.PatternMatch;
+import com.github.tomakehurst.wiremock.matching.matchers.string.PatternMatcher;
 
-import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.METHOD;
+import static com.github.tomakehurst.wiremock.matching.Mismatches.mismatch;
 
 public class MethodMatcher extends RequestMatcher {
 
+    private static final int ENUM_COMPARISON_COST = 1;
+
     private final RequestMethod method;
 
     public MethodMatcher(RequestMethod method) {
@@ -35,9 +39,14 @@ public class MethodMatcher extends RequestMatcher {
     public PatternMatch matches(Request request) {
         boolean matched = method == null || method == ANY || request.getMethod() == method;
         if (!matched) {
-            notifier().info(String.format("Method %s does not match", request.getMethod()));
+            mismatch(METHOD, null, method, request.getMethod());
         }
         return PatternMatch.fromMatched(matched);
     }
 
+    @Override
+    public int estimatedCost() {
+        return method == null || method == ANY ? PatternMatcher.FREE : ENUM_COMPARISON_COST;
+    }
+
 }
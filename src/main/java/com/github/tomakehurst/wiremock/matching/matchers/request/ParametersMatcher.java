@@ -19,7 +19,6 @@
  */
 package com.github.tomakehurst.wiremock.matching.matchers.request;
 
-import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 
 import com.github.tomakehurst.wiremock.http.HttpParameter;
 import com.github.tomakehurst.wiremock.http.Request;
@@ -29,8 +28,13 @@ import com.github.tomakehurst.wiremock.matching.matchers.string.PatternMatcher;
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
 
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.PARAMETER;
+import static com.github.tomakehurst.wiremock.matching.Mismatches.mismatch;
+
 public class ParametersMatcher extends RequestMatcher {
 
+    private static final int PARAMETER_PARSING_COST = 8;
+
     private final Map<String, PatternMatcher> matchers;
 
     public ParametersMatcher(Map<String, ValuePattern> parameterPatterns) {
@@ -58,15 +62,41 @@ public class ParametersMatcher extends RequestMatcher {
             HttpParameter parameter = request.parameter(matcher.getKey());
             PatternMatch match = parameter.hasValueMatching(matcher.getValue());
             if (!match.isMatched()) {
-                notifier().info(String.format(
-                        "Parameter %s does not match. For a match, value should %s",
-                        matcher.getKey(),
-                        matcher.getValue().toString()));
+                notifyMismatch(matcher);
                 return match;
             } else {
-                matched.and(match);
+                matched = matched.and(match);
             }
         }
         return matched;
     }
+
+    @Override
+    public boolean test(Request request) {
+        for (Map.Entry<String, PatternMatcher> matcher: matchers.entrySet()) {
+            HttpParameter parameter = request.parameter(matcher.getKey());
+            if (!parameter.hasValueSatisfying(matcher.getValue())) {
+                notifyMismatch(matcher);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void notifyMismatch(Map.Entry<String, PatternMatcher> matcher) {
+        mismatch(PARAMETER, matcher.getKey(), matcher.getValue(), null);
+    }
+
+    @Override
+    public int estimatedCost() {
+        if (matchers.isEmpty()) {
+            return PatternMatcher.FREE;
+        }
+
+        int cost = PARAMETER_PARSING_COST;
+        for (PatternMatcher matcher: matchers.values()) {
+            cost += matcher.estimatedCost();
+        }
+        return cost;
+    }
 }
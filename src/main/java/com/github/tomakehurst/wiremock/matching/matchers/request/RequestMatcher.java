@@ -23,6 +23,19 @@ public abstract class RequestMatcher {
 
     public abstract PatternMatch matches(Request request);
 
+    /**
+     * @return whether {@link #matches(Request)} would match, without capturing any groups
+     */
+    public boolean test(Request request) {
+        return matches(request).isMatched();
+    }
+
+    /**
+     * @return a rough, relative estimate of how expensive {@link #matches(Request)} is,
+     * on the same scale as {@link com.github.tomakehurst.wiremock.matching.matchers.string.PatternMatcher#estimatedCost()}
+     */
+    public abstract int estimatedCost();
+
     public RequestMatcher and(RequestMatcher that) {
         return new AndRequestMatcher(this, that);
     }
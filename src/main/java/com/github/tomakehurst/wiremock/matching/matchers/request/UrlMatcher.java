@@ -49,4 +49,14 @@ public class UrlMatcher extends RequestMatcher {
         return matcher.matches(request.getUrl());
     }
 
+    @Override
+    public boolean test(Request request) {
+        return matcher.test(request.getUrl());
+    }
+
+    @Override
+    public int estimatedCost() {
+        return matcher.estimatedCost();
+    }
+
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton over a list of literals, finding every one of them that occurs in a string
+ * in a single pass over it, however many literals there are.
+ */
+public class AhoCorasickAutomaton {
+
+    private final Node root = new Node();
+    private final BitSet emptyLiterals = new BitSet();
+    private final int literalCount;
+
+    public AhoCorasickAutomaton(List<String> literals) {
+        literalCount = literals.size();
+        Map<Node, TreeMap<Character, Node>> trie = new IdentityHashMap<Node, TreeMap<Character, Node>>();
+        trie.put(root, new TreeMap<Character, Node>());
+        for (int i = 0; i < literals.size(); i++) {
+            String literal = literals.get(i);
+            if (literal.length() == 0) {
+                emptyLiterals.set(i);
+                continue;
+            }
+
+            Node node = root;
+            for (int j = 0; j < literal.length(); j++) {
+                TreeMap<Character, Node> children = trie.get(node);
+                Node child = children.get(literal.charAt(j));
+                if (child == null) {
+                    child = new Node();
+                    children.put(literal.charAt(j), child);
+                    trie.put(child, new TreeMap<Character, Node>());
+                }
+                node = child;
+            }
+            node.literalIndexes = append(node.literalIndexes, i);
+        }
+
+        for (Map.Entry<Node, TreeMap<Character, Node>> entry: trie.entrySet()) {
+            entry.getKey().freeze(entry.getValue());
+        }
+        linkFailures();
+    }
+
+    private void linkFailures() {
+        Queue<Node> queue = new LinkedList<Node>();
+        root.failure = root;
+        for (Node child: root.children) {
+            child.failure = root;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            for (int i = 0; i < node.labels.length; i++) {
+                Node child = node.children[i];
+                Node failure = node.failure;
+                while (failure != root && failure.child(node.labels[i]) == null) {
+                    failure = failure.failure;
+                }
+                Node next = failure.child(node.labels[i]);
+                child.failure = next != null && next != child ? next : root;
+                child.output = child.failure.literalIndexes.length > 0 ? child.failure : child.failure.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * @return the indexes of the literals that occur somewhere in the input
+     */
+    public BitSet occurringIndexes(CharSequence input) {
+        BitSet found = (BitSet) emptyLiterals.clone();
+        int remaining = literalCount - found.cardinality();
+        Node node = root;
+        for (int i = 0; i < input.length() && remaining > 0; i++) {
+            char c = input.charAt(i);
+            Node next = node.child(c);
+            while (next == null && node != root) {
+                node = node.failure;
+                next = node.child(c);
+            }
+            node = next != null ? next : root;
+
+            for (Node match = node; match != null; match = match.output) {
+                for (int literalIndex: match.literalIndexes) {
+                    if (!found.get(literalIndex)) {
+                        found.set(literalIndex);
+                        remaining--;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] appended = Arrays.copyOf(values, values.length + 1);
+        appended[values.length] = value;
+        return appended;
+    }
+
+    private static class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        int[] literalIndexes = new int[0];
+        Node failure;
+        /** The nearest node along the failure chain that ends a literal */
+        Node output;
+
+        void freeze(TreeMap<Character, Node> childrenByLabel) {
+            labels = new char[childrenByLabel.size()];
+            children = new Node[childrenByLabel.size()];
+            int i = 0;
+            for (Map.Entry<Character, Node> entry: childrenByLabel.entrySet()) {
+                labels[i] = entry.getKey();
+                children[i] = entry.getValue();
+                i++;
+            }
+        }
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+}
@@ -51,6 +51,16 @@ class AnyPatternMatcher extends PatternMatcher {
         return this;
     }
 
+    @Override
+    public boolean test(String str) {
+        return true;
+    }
+
+    @Override
+    public int estimatedCost() {
+        return FREE;
+    }
+
     @Override
     public String toString() {
         return "any";
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.google.common.primitives.Bytes;
+
+class BinaryContainsPatternMatcher extends BinaryPatternMatcher {
+
+    BinaryContainsPatternMatcher(byte[] expected) {
+        super(expected);
+    }
+
+    @Override
+    public boolean test(byte[] bytes) {
+        return bytes != null && Bytes.indexOf(bytes, expected) >= 0;
+    }
+
+    @Override
+    public int estimatedCost() {
+        return STRING_SEARCH_COST;
+    }
+
+    @Override
+    public String toString() {
+        return "contains binary " + expectedAsBase64();
+    }
+}
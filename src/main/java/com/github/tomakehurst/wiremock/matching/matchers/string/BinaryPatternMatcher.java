@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.github.tomakehurst.wiremock.matching.PatternMatch;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static javax.xml.bind.DatatypeConverter.printBase64Binary;
+
+/**
+ * Matches raw bytes, so binary request bodies can be matched without being decoded. Strings, such as header
+ * values, are matched against their UTF-8 encoding.
+ */
+public abstract class BinaryPatternMatcher extends PatternMatcher {
+
+    protected final byte[] expected;
+
+    BinaryPatternMatcher(byte[] expected) {
+        this.expected = expected;
+    }
+
+    public abstract boolean test(byte[] bytes);
+
+    @Override
+    public PatternMatch matches(String str) {
+        return PatternMatch.fromMatched(test(str));
+    }
+
+    @Override
+    public boolean test(String str) {
+        return test(str.getBytes(UTF_8));
+    }
+
+    protected String expectedAsBase64() {
+        return printBase64Binary(expected);
+    }
+}
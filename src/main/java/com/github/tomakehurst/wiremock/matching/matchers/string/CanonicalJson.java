@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * A canonical text form of a JSON document, with object keys sorted, array elements sorted and numbers
+ * normalised. Any two documents JSONAssert considers equal in a non-extensible mode, with or without strict
+ * array ordering, have the same canonical form, so it can index equalToJson patterns. Documents with the same
+ * form aren't necessarily equal, so candidates still need comparing in full.
+ */
+public class CanonicalJson {
+
+    /**
+     * @return the canonical form, or null if the string isn't a JSON object or array
+     */
+    public static String canonicalFormOf(String json) {
+        Object document = ParsedJson.parseForJsonAssert(json);
+        return document != null ? canonicalFormOfDocument(document) : null;
+    }
+
+    /**
+     * As {@link #canonicalFormOf(String)}, but reusing the request body's parsed document and remembering the
+     * result alongside it.
+     */
+    public static String canonicalFormOfBody(String body) {
+        return ParsedJson.of(body).canonicalForm();
+    }
+
+    static String canonicalFormOfDocument(Object document) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            append(sb, document);
+            return sb.toString();
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private static void append(StringBuilder sb, Object value) throws JSONException {
+        if (value instanceof JSONObject) {
+            appendObject(sb, (JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            appendArray(sb, (JSONArray) value);
+        } else if (value instanceof Number) {
+            // JSONAssert compares numbers by their double value, and 0.0 equals -0.0
+            double number = ((Number) value).doubleValue();
+            sb.append(number == 0 ? "0.0" : Double.toString(number));
+        } else if (value instanceof String) {
+            sb.append(JSONObject.quote((String) value));
+        } else {
+            sb.append(value);
+        }
+    }
+
+    private static void appendObject(StringBuilder sb, JSONObject object) throws JSONException {
+        String[] keys = new String[object.length()];
+        int i = 0;
+        for (Iterator<?> iterator = object.keys(); iterator.hasNext();) {
+            keys[i++] = (String) iterator.next();
+        }
+        Arrays.sort(keys);
+
+        sb.append('{');
+        for (i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(JSONObject.quote(keys[i])).append(':');
+            append(sb, object.get(keys[i]));
+        }
+        sb.append('}');
+    }
+
+    private static void appendArray(StringBuilder sb, JSONArray array) throws JSONException {
+        List<String> elements = newArrayList();
+        for (int i = 0; i < array.length(); i++) {
+            StringBuilder element = new StringBuilder();
+            append(element, array.get(i));
+            elements.add(element.toString());
+        }
+        Collections.sort(elements);
+
+        sb.append('[');
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(elements.get(i));
+        }
+        sb.append(']');
+    }
+}
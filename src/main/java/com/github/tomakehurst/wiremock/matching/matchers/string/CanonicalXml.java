@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A canonical text form of an XML document in the spirit of C14N: attributes are sorted, whitespace only text
+ * is dropped and other text trimmed, as XMLUnit does when ignoring whitespace. Everything else XMLUnit might
+ * compare, including namespace prefixes, comments and CDATA sections, is kept, so documents with the same
+ * canonical form are always similar and don't need diffing. Documents with a DTD or entity references have
+ * no canonical form.
+ */
+class CanonicalXml {
+
+    private static final Comparator<Attr> BY_QUALIFIED_NAME = new Comparator<Attr>() {
+        public int compare(Attr one, Attr two) {
+            return qualifiedName(one).compareTo(qualifiedName(two));
+        }
+    };
+
+    /**
+     * @return the canonical form, or null if the document hasn't got one
+     */
+    static String canonicalFormOf(Document document) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml ").append(document.getXmlVersion())
+                .append(' ').append(document.getXmlEncoding())
+                .append(' ').append(document.getXmlStandalone()).append("?>");
+        for (Node child = document.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (!append(sb, child)) {
+                return null;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean append(StringBuilder sb, Node node) {
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                return appendElement(sb, (Element) node);
+            case Node.TEXT_NODE:
+                String text = node.getNodeValue().trim();
+                if (text.length() > 0) {
+                    escape(sb, text);
+                }
+                return true;
+            case Node.CDATA_SECTION_NODE:
+                sb.append("<![CDATA[");
+                escape(sb, node.getNodeValue().trim());
+                sb.append("]]>");
+                return true;
+            case Node.COMMENT_NODE:
+                sb.append("<!--");
+                escape(sb, node.getNodeValue());
+                sb.append("-->");
+                return true;
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                sb.append("<?").append(node.getNodeName()).append(' ');
+                escape(sb, node.getNodeValue());
+                sb.append("?>");
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean appendElement(StringBuilder sb, Element element) {
+        sb.append('<').append(qualifiedName(element));
+
+        NamedNodeMap attributeMap = element.getAttributes();
+        Attr[] attributes = new Attr[attributeMap.getLength()];
+        for (int i = 0; i < attributes.length; i++) {
+            attributes[i] = (Attr) attributeMap.item(i);
+        }
+        Arrays.sort(attributes, BY_QUALIFIED_NAME);
+        for (Attr attribute: attributes) {
+            sb.append(' ').append(qualifiedName(attribute)).append("=\"");
+            escape(sb, attribute.getValue());
+            sb.append('"');
+        }
+        sb.append('>');
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (!append(sb, child)) {
+                return false;
+            }
+        }
+
+        sb.append("</").append(qualifiedName(element)).append('>');
+        return true;
+    }
+
+    private static String qualifiedName(Node node) {
+        String namespaceUri = node.getNamespaceURI();
+        return namespaceUri != null ? "{" + namespaceUri + "}" + node.getNodeName() : node.getNodeName();
+    }
+
+    private static void escape(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&': sb.append("&amp;"); break;
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '"': sb.append("&quot;"); break;
+                default: sb.append(c);
+            }
+        }
+    }
+}
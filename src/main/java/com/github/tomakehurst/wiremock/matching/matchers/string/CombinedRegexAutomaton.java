@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Compiles a list of regular expressions into a single, lazily built DFA so that every one of them
+ * can be tested against a string in one pass over it. Only a subset of java.util.regex is understood:
+ * literals, escapes, character classes, groups, alternation and greedy or reluctant quantifiers.
+ * Callers should check isSupported() and fall back to RegexPatternMatcher for anything else,
+ * e.g. back references, lookaround or inline flags.
+ *
+ * As with RegexPatternMatcher, expressions must match the whole string and '.' matches any character.
+ */
+public class CombinedRegexAutomaton {
+
+    private static final int MAX_CACHED_STATES = 10000;
+    private static final int[] NONE = new int[0];
+
+    private final Nfa nfa;
+    private final ConcurrentHashMap<StateKey, DfaState> states = new ConcurrentHashMap<StateKey, DfaState>();
+    private final DfaState initialState;
+
+    public CombinedRegexAutomaton(List<String> regexes) {
+        nfa = new Nfa();
+        int[] starts = new int[regexes.size()];
+        for (int i = 0; i < regexes.size(); i++) {
+            RegexNode regex = new RegexParser(regexes.get(i)).parse();
+            starts[i] = nfa.compile(regex, nfa.addAccept(i));
+        }
+
+        initialState = stateFor(nfa.closure(starts));
+    }
+
+    public static boolean isSupported(String regex) {
+        try {
+            new RegexParser(regex).parse();
+            return true;
+        } catch (UnsupportedRegexException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the ascending indexes of the regexes that fully match the input, or null if the input
+     * contains characters the automaton can't evaluate (surrogate pairs, which java.util.regex treats
+     * as single code points)
+     */
+    public int[] matchingIndexes(CharSequence input) {
+        DfaState state = initialState;
+        for (int i = 0; i < input.length() && state.nfaStates.length > 0; i++) {
+            char c = input.charAt(i);
+            if (Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) {
+                return null;
+            }
+            state = transition(state, c);
+        }
+
+        return state.accepted;
+    }
+
+    private DfaState transition(DfaState state, char c) {
+        if (c >= state.asciiTransitions.length) {
+            return stateFor(nfa.step(state.nfaStates, c));
+        }
+
+        DfaState next = state.asciiTransitions[c];
+        if (next == null) {
+            next = stateFor(nfa.step(state.nfaStates, c));
+            if (states.size() < MAX_CACHED_STATES) {
+                state.asciiTransitions[c] = next;
+            }
+        }
+
+        return next;
+    }
+
+    private DfaState stateFor(int[] nfaStates) {
+        StateKey key = new StateKey(nfaStates);
+        DfaState state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+
+        state = new DfaState(nfaStates, nfa.acceptedBy(nfaStates));
+        if (states.size() < MAX_CACHED_STATES) {
+            DfaState existing = states.putIfAbsent(key, state);
+            return existing != null ? existing : state;
+        }
+
+        return state;
+    }
+
+    private static class DfaState {
+
+        final int[] nfaStates;
+        final int[] accepted;
+        final DfaState[] asciiTransitions = new DfaState[128];
+
+        DfaState(int[] nfaStates, int[] accepted) {
+            this.nfaStates = nfaStates;
+            this.accepted = accepted;
+        }
+    }
+
+    private static class StateKey {
+
+        final int[] nfaStates;
+        final int hashCode;
+
+        StateKey(int[] nfaStates) {
+            this.nfaStates = nfaStates;
+            this.hashCode = Arrays.hashCode(nfaStates);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey && Arrays.equals(nfaStates, ((StateKey) o).nfaStates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Thompson NFA, built back to front: each fragment is compiled knowing the state it continues to.
+     */
+    private static class Nfa {
+
+        private static final int CONSUME = 0;
+        private static final int EPSILON = 1;
+        private static final int ACCEPT = 2;
+
+        private final List<Integer> kinds = newArrayList();
+        private final List<char[]> ranges = newArrayList();
+        private final List<Integer> next = newArrayList();
+        private final List<Integer> alternative = newArrayList();
+
+        int addAccept(int regexIndex) {
+            return add(ACCEPT, null, regexIndex, -1);
+        }
+
+        int compile(RegexNode node, int out) {
+            if (node instanceof RegexNode.CharacterSet) {
+                return add(CONSUME, ((RegexNode.CharacterSet) node).ranges, out, -1);
+            }
+
+            if (node instanceof RegexNode.Sequence) {
+                List<RegexNode> items = ((RegexNode.Sequence) node).items;
+                int entry = out;
+                for (int i = items.size() - 1; i >= 0; i--) {
+                    entry = compile(items.get(i), entry);
+                }
+                return entry;
+            }
+
+            if (node instanceof RegexNode.Alternation) {
+                List<RegexNode> options = ((RegexNode.Alternation) node).options;
+                int entry = compile(options.get(options.size() - 1), out);
+                for (int i = options.size() - 2; i >= 0; i--) {
+                    entry = add(EPSILON, null, compile(options.get(i), out), entry);
+                }
+                return entry;
+            }
+
+            RegexNode.Repetition repetition = (RegexNode.Repetition) node;
+            int entry = out;
+            if (repetition.max == RegexNode.Repetition.UNBOUNDED) {
+                int loop = add(EPSILON, null, -1, out);
+                next.set(loop, compile(repetition.item, loop));
+                entry = loop;
+            } else {
+                for (int i = repetition.min; i < repetition.max; i++) {
+                    entry = add(EPSILON, null, compile(repetition.item, entry), out);
+                }
+            }
+
+            for (int i = 0; i < repetition.min; i++) {
+                entry = compile(repetition.item, entry);
+            }
+            return entry;
+        }
+
+        private int add(int kind, char[] characterRanges, int nextState, int alternativeState) {
+            kinds.add(kind);
+            ranges.add(characterRanges);
+            next.add(nextState);
+            alternative.add(alternativeState);
+            return kinds.size() - 1;
+        }
+
+        /**
+         * @return the sorted consuming and accepting states reachable from the given states without
+         * consuming any input
+         */
+        int[] closure(int... from) {
+            BitSet reached = new BitSet(kinds.size());
+            BitSet visited = new BitSet(kinds.size());
+            int[] stack = new int[kinds.size()];
+            int size = 0;
+            for (int state: from) {
+                stack[size++] = state;
+            }
+
+            while (size > 0) {
+                int state = stack[--size];
+                if (visited.get(state)) {
+                    continue;
+                }
+                visited.set(state);
+
+                if (kinds.get(state) == EPSILON) {
+                    stack[size++] = next.get(state);
+                    stack[size++] = alternative.get(state);
+                } else {
+                    reached.set(state);
+                }
+            }
+
+            return toArray(reached);
+        }
+
+        int[] step(int[] from, char c) {
+            int[] targets = new int[from.length];
+            int count = 0;
+            for (int state: from) {
+                if (kinds.get(state) == CONSUME && contains(ranges.get(state), c)) {
+                    targets[count++] = next.get(state);
+                }
+            }
+
+            return count == 0 ? NONE : closure(Arrays.copyOf(targets, count));
+        }
+
+        int[] acceptedBy(int[] nfaStates) {
+            BitSet accepted = new BitSet();
+            for (int state: nfaStates) {
+                if (kinds.get(state) == ACCEPT) {
+                    accepted.set(next.get(state));
+                }
+            }
+
+            return toArray(accepted);
+        }
+
+        private static boolean contains(char[] ranges, char c) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static int[] toArray(BitSet bits) {
+            if (bits.isEmpty()) {
+                return NONE;
+            }
+
+            int[] array = new int[bits.cardinality()];
+            int i = 0;
+            for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+                array[i++] = bit;
+            }
+            return array;
+        }
+    }
+}
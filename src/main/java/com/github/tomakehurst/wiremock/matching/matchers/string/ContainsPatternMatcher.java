@@ -31,6 +31,16 @@ class ContainsPatternMatcher extends PatternMatcher {
         return PatternMatch.fromMatched(str.contains(containedString));
     }
 
+    @Override
+    public boolean test(String str) {
+        return str.contains(containedString);
+    }
+
+    @Override
+    public int estimatedCost() {
+        return STRING_SEARCH_COST;
+    }
+
     @Override
     public String toString() {
         return "contains " + containedString;
@@ -31,6 +31,16 @@ class EqualityPatternMatcher extends PatternMatcher {
         return PatternMatch.fromMatched(value.equals(str));
     }
 
+    @Override
+    public boolean test(String str) {
+        return value.equals(str);
+    }
+
+    @Override
+    public int estimatedCost() {
+        return STRING_COMPARISON_COST;
+    }
+
     @Override
     public String toString() {
         return "equal " + value;
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Shares compiled patterns between every stub that uses the same expression, since large mapping directories
+ * tend to repeat the same few regexes and documents thousands of times. Entries are held weakly, so an
+ * expression is forgotten once no stub refers to it. Only immutable matchers are interned.
+ */
+public final class InternedPatterns {
+
+    private static final Cache<List<?>, PatternMatcher> matchers = CacheBuilder.newBuilder().weakValues().build();
+    private static final Cache<String, Pattern> regexes = CacheBuilder.newBuilder().weakValues().build();
+
+    private InternedPatterns() {}
+
+    /**
+     * @return the regex compiled as stub regexes are, with {@link Pattern#DOTALL}
+     */
+    public static Pattern regex(String regex) {
+        Pattern pattern = regexes.getIfPresent(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex, Pattern.DOTALL);
+            Pattern existing = regexes.asMap().putIfAbsent(regex, pattern);
+            if (existing != null) {
+                pattern = existing;
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * @return the matcher interned against the key, or null if there isn't one
+     */
+    static PatternMatcher matcherFor(List<?> key) {
+        return matchers.getIfPresent(key);
+    }
+
+    /**
+     * @return the matcher interned against the key, which is this one unless another thread got there first
+     */
+    static PatternMatcher intern(List<?> key, PatternMatcher matcher) {
+        PatternMatcher existing = matchers.asMap().putIfAbsent(key, matcher);
+        return existing != null ? existing : matcher;
+    }
+}
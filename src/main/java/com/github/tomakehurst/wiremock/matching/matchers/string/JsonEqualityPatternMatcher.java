@@ -17,9 +17,10 @@ package com.github.tomakehurst.wiremock.matching.matchers.string;
 
 import com.github.tomakehurst.wiremock.matching.PatternMatch;
 import com.google.common.base.Objects;
+import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.skyscreamer.jsonassert.JSONCompareMode;
-import org.skyscreamer.jsonassert.JSONCompareResult;
 
 import static org.skyscreamer.jsonassert.JSONCompare.compareJSON;
 
@@ -27,22 +28,43 @@ class JsonEqualityPatternMatcher extends PatternMatcher {
 
     private final String value;
     private final JSONCompareMode compareMode;
+    private final Object expected;
 
     public JsonEqualityPatternMatcher(String value, JSONCompareMode compareMode) {
        this.value = value;
        this.compareMode = Objects.firstNonNull(compareMode, JSONCompareMode.NON_EXTENSIBLE);
+       this.expected = ParsedJson.parseForJsonAssert(value);
     }
 
     @Override
     public PatternMatch matches(String str) {
+        return PatternMatch.fromMatched(test(str));
+    }
+
+    @Override
+    public boolean test(String str) {
+        if (expected == null) {
+            return false;
+        }
+
+        Object actual = ParsedJson.of(str).jsonAssertDocument();
         try {
-            JSONCompareResult result = compareJSON(value, str, compareMode);
-            return PatternMatch.fromMatched(result.passed());
+            if (expected instanceof JSONObject && actual instanceof JSONObject) {
+                return compareJSON((JSONObject) expected, (JSONObject) actual, compareMode).passed();
+            } else if (expected instanceof JSONArray && actual instanceof JSONArray) {
+                return compareJSON((JSONArray) expected, (JSONArray) actual, compareMode).passed();
+            }
+            return false;
         } catch (JSONException e) {
-            return PatternMatch.notMatched();
+            return false;
         }
     }
 
+    @Override
+    public int estimatedCost() {
+        return DOCUMENT_COMPARISON_COST;
+    }
+
     @Override
     public String toString() {
         return "equal to JSON " + value + " with mode " + compareMode;
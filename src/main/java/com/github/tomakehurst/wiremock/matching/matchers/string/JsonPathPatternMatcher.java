@@ -25,65 +25,106 @@ import net.minidev.json.JSONObject;
 
 import java.util.List;
 
-import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.JSON_PATH;
+import static com.github.tomakehurst.wiremock.matching.Mismatches.mismatch;
+
 
 class JsonPathPatternMatcher extends PatternMatcher {
 
+    /**
+     * Bodies at least this long are streamed when testing simple paths, rather than parsed into a tree
+     */
+    static final int STREAMING_THRESHOLD = 256 * 1024;
+
     private final String jsonPath;
+    private final JsonPath compiledPath;
+    private final RuntimeException compileFailure;
+    private final StreamingJsonPath streamingPath;
 
     public JsonPathPatternMatcher(String jsonPath) {
         this.jsonPath = jsonPath;
+
+        // An invalid path is reported each time it fails to match, as it was before paths were compiled up front
+        JsonPath compiled = null;
+        RuntimeException failure = null;
+        try {
+            compiled = JsonPath.compile(jsonPath);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        this.compiledPath = compiled;
+        this.compileFailure = failure;
+        this.streamingPath = compiled != null ? StreamingJsonPath.compile(jsonPath) : null;
     }
 
     @Override
     public PatternMatch matches(String value) {
-        try {
-            Object obj = JsonPath.read(value, jsonPath);
-            if (obj instanceof JSONArray) {
-                JSONArray jsonArr = (JSONArray) obj;
-                if (jsonArr.size() > 0) {
-                    List<String> jsonStrs = Lists.newArrayList();
-                    for (Object o: jsonArr) {
-                        jsonStrs.add(o.toString());
-                    }
-                    return PatternMatch.matched(new MatchedGroups(jsonStrs.toArray(new String[]{})));
-                } else {
-                    return PatternMatch.notMatched();
-                }
-            }
-
-            if (obj instanceof JSONObject) {
-                JSONObject jsonObj = (JSONObject) obj;
-                if (jsonObj.size() > 0) {
-                    return PatternMatch.matched(new MatchedGroups(jsonObj.toString()));
-                } else {
-                    return PatternMatch.notMatched();
+        Object obj = read(value);
+        if (obj instanceof JSONArray) {
+            JSONArray jsonArr = (JSONArray) obj;
+            if (jsonArr.size() > 0) {
+                List<String> jsonStrs = Lists.newArrayList();
+                for (Object o: jsonArr) {
+                    jsonStrs.add(o.toString());
                 }
+                return PatternMatch.matched(new MatchedGroups(jsonStrs.toArray(new String[]{})));
+            } else {
+                return PatternMatch.notMatched();
             }
+        }
 
-            if (obj != null) {
-                return PatternMatch.matched(new MatchedGroups(obj.toString()));
+        if (obj instanceof JSONObject) {
+            JSONObject jsonObj = (JSONObject) obj;
+            if (jsonObj.size() > 0) {
+                return PatternMatch.matched(new MatchedGroups(jsonObj.toString()));
             } else {
                 return PatternMatch.notMatched();
             }
+        }
 
-        } catch (Exception e) {
-            String error;
-            if (e.getMessage().equalsIgnoreCase("invalid path")) {
-                error = "the JSON path didn't match the document structure";
+        if (obj != null) {
+            return PatternMatch.matched(new MatchedGroups(obj.toString()));
+        } else {
+            return PatternMatch.notMatched();
+        }
+    }
+
+    @Override
+    public boolean test(String value) {
+        if (streamingPath != null && value != null && value.length() >= STREAMING_THRESHOLD) {
+            StreamingJsonPath.Result result = ParsedJson.of(value).stream(streamingPath);
+            if (result == StreamingJsonPath.Result.MISSING) {
+                mismatch(JSON_PATH, null, jsonPath, value, "invalid path");
             }
-            else if (e.getMessage().equalsIgnoreCase("invalid container object")) {
-                error = "the JSON document couldn't be parsed";
-            } else {
-                error = "of error '" + e.getMessage() + "'";
+            if (result != StreamingJsonPath.Result.UNRESOLVED) {
+                return result == StreamingJsonPath.Result.PRESENT;
             }
+        }
 
-            String message = String.format(
-                    "Warning: JSON path expression '%s' failed to match document '%s' because %s",
-                    jsonPath, value, error);
-            notifier().info(message);
-            return PatternMatch.notMatched();
+        Object obj = read(value);
+        if (obj instanceof JSONArray) {
+            return ((JSONArray) obj).size() > 0;
+        } else if (obj instanceof JSONObject) {
+            return ((JSONObject) obj).size() > 0;
         }
+        return obj != null;
+    }
+
+    private Object read(String value) {
+        try {
+            if (compileFailure != null) {
+                throw compileFailure;
+            }
+            return ParsedJson.of(value).read(compiledPath);
+        } catch (Exception e) {
+            mismatch(JSON_PATH, null, jsonPath, value, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public int estimatedCost() {
+        return JSON_PATH_COST;
     }
 
     @Override
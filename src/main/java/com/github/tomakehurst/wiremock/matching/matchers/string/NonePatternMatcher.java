@@ -55,6 +55,16 @@ class NonePatternMatcher extends PatternMatcher {
         return that;
     }
 
+    @Override
+    public boolean test(String str) {
+        return str == null;
+    }
+
+    @Override
+    public int estimatedCost() {
+        return FREE;
+    }
+
     @Override
     public String toString() {
         return "none";
@@ -39,6 +39,16 @@ class NotPatternMatcher extends PatternMatcher {
         return m;
     }
 
+    @Override
+    public boolean test(String str) {
+        return !m.test(str);
+    }
+
+    @Override
+    public int estimatedCost() {
+        return m.estimatedCost();
+    }
+
     @Override
     public String toString() {
         return "not (" + m.toString() + ")";
@@ -39,6 +39,16 @@ class OrPatternMatcher extends PatternMatcher {
         }
     }
 
+    @Override
+    public boolean test(String str) {
+        return m1.test(str) || m2.test(str);
+    }
+
+    @Override
+    public int estimatedCost() {
+        return m1.estimatedCost() + m2.estimatedCost();
+    }
+
     @Override
     public String toString() {
         return "(" + m1.toString() + " or " + m2.toString() + ")";
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.JsonProviderFactory;
+import org.json.JSONException;
+import org.skyscreamer.jsonassert.JSONParser;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The parsed forms of a JSON document, shared by every JSON matcher that looks at it. A request body is checked
+ * against every JSON stub and later against every JSON verification of the journal, so documents are cached
+ * against the identity of the string holding them, which lives exactly as long as the request (or logged
+ * request) it came from. Each form is parsed at most once, and a failure to parse is remembered as well.
+ *
+ * The cached forms hold no reference back to the string, or the weakly held key could never be collected.
+ * Instead each call to {@link #of(String)} pairs the string with its forms for as long as the caller needs it.
+ *
+ * The result of reading each JSON path is remembered too, so stubs testing the same path against a body share
+ * one evaluation of it, whether read from the tree or streamed.
+ */
+class ParsedJson {
+
+    static final int MAXIMUM_SIZE = 1000;
+
+    private static final Cache<String, Forms> cache =
+            CacheBuilder.newBuilder().weakKeys().maximumSize(MAXIMUM_SIZE).build();
+
+    private static final Object UNPARSEABLE = new Object();
+    private static final Object NOTHING_READ = new Object();
+
+    private final String json;
+    private final Forms forms;
+
+    private ParsedJson(String json, Forms forms) {
+        this.json = json;
+        this.forms = forms;
+    }
+
+    private static class Forms {
+        volatile Object jsonPathDocument;
+        volatile RuntimeException jsonPathFailure;
+        volatile Object jsonAssertDocument;
+        volatile String canonicalForm;
+        final ConcurrentMap<String, Object> jsonPathResults = new ConcurrentHashMap<String, Object>();
+        final ConcurrentMap<String, StreamingJsonPath.Result> streamedResults =
+                new ConcurrentHashMap<String, StreamingJsonPath.Result>();
+    }
+
+    static ParsedJson of(String json) {
+        if (json == null) {
+            return new ParsedJson(null, new Forms());
+        }
+
+        Forms forms = cache.getIfPresent(json);
+        if (forms == null) {
+            forms = new Forms();
+            Forms existing = cache.asMap().putIfAbsent(json, forms);
+            if (existing != null) {
+                forms = existing;
+            }
+        }
+        return new ParsedJson(json, forms);
+    }
+
+    static long cachedDocuments() {
+        cache.cleanUp();
+        return cache.size();
+    }
+
+    /**
+     * @return the document as parsed by JsonPath's provider
+     * @throws RuntimeException the same exception JsonPath would have thrown reading the string
+     */
+    Object jsonPathDocument() {
+        if (forms.jsonPathDocument == null && forms.jsonPathFailure == null) {
+            synchronized (forms) {
+                if (forms.jsonPathDocument == null && forms.jsonPathFailure == null) {
+                    try {
+                        if (json == null || json.length() == 0) {
+                            throw new IllegalArgumentException("json can not be null or empty");
+                        }
+                        forms.jsonPathDocument = JsonProviderFactory.createProvider().parse(json);
+                    } catch (RuntimeException e) {
+                        forms.jsonPathFailure = e;
+                    }
+                }
+            }
+        }
+
+        if (forms.jsonPathFailure != null) {
+            throw forms.jsonPathFailure;
+        }
+        return forms.jsonPathDocument;
+    }
+
+    /**
+     * @return what the path reads from the document
+     * @throws RuntimeException the same exception JsonPath would have thrown reading the string
+     */
+    Object read(JsonPath path) {
+        Object result = forms.jsonPathResults.get(path.getPath());
+        if (result == null) {
+            try {
+                Object value = path.read(jsonPathDocument());
+                result = value != null ? value : NOTHING_READ;
+            } catch (RuntimeException e) {
+                result = e;
+            }
+            forms.jsonPathResults.putIfAbsent(path.getPath(), result);
+        }
+
+        if (result instanceof RuntimeException) {
+            throw (RuntimeException) result;
+        }
+        return result != NOTHING_READ ? result : null;
+    }
+
+    /**
+     * @return the result of streaming the path through the document, or UNRESOLVED if the document has already
+     * been parsed for JsonPath, in which case reading the tree is cheaper
+     */
+    StreamingJsonPath.Result stream(StreamingJsonPath path) {
+        if (forms.jsonPathDocument != null || forms.jsonPathFailure != null) {
+            return StreamingJsonPath.Result.UNRESOLVED;
+        }
+
+        StreamingJsonPath.Result result = forms.streamedResults.get(path.getPath());
+        if (result == null) {
+            result = path.evaluate(json);
+            forms.streamedResults.putIfAbsent(path.getPath(), result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the document as a JSONObject or JSONArray for JSONAssert, or null if it isn't one
+     */
+    Object jsonAssertDocument() {
+        if (forms.jsonAssertDocument == null) {
+            synchronized (forms) {
+                if (forms.jsonAssertDocument == null) {
+                    Object document = parseForJsonAssert(json);
+                    forms.jsonAssertDocument = document != null ? document : UNPARSEABLE;
+                }
+            }
+        }
+        return forms.jsonAssertDocument != UNPARSEABLE ? forms.jsonAssertDocument : null;
+    }
+
+    /**
+     * @return the {@link CanonicalJson} form of the document, or null if it isn't a JSON object or array
+     */
+    String canonicalForm() {
+        if (forms.canonicalForm == null) {
+            Object document = jsonAssertDocument();
+            if (document == null) {
+                return null;
+            }
+            forms.canonicalForm = CanonicalJson.canonicalFormOfDocument(document);
+        }
+        return forms.canonicalForm;
+    }
+
+    static Object parseForJsonAssert(String json) {
+        if (json == null) {
+            return null;
+        }
+
+        try {
+            return JSONParser.parseJSON(json);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * The parsed form of an XML document, shared by every XML matcher that looks at it, cached against the identity
+ * of the string holding it in the same way as {@link ParsedJson}, and likewise without the cached forms
+ * referring back to the string.
+ *
+ * Documents are built without deferred node expansion. Their nodes still keep caches that are filled in as
+ * they're read, so callers reading a document from several threads must lock it.
+ */
+class ParsedXml {
+
+    static final int MAXIMUM_SIZE = 1000;
+
+    private static final Cache<String, Forms> cache =
+            CacheBuilder.newBuilder().weakKeys().maximumSize(MAXIMUM_SIZE).build();
+
+    private static final DocumentBuilderFactory documentBuilderFactory = newDocumentBuilderFactory();
+
+    private static final Object UNPARSEABLE = new Object();
+    private static final String NO_CANONICAL_FORM = new String();
+
+    private final String xml;
+    private final Forms forms;
+
+    private ParsedXml(String xml, Forms forms) {
+        this.xml = xml;
+        this.forms = forms;
+    }
+
+    private static class Forms {
+        volatile Object document;
+        volatile String canonicalForm;
+    }
+
+    static ParsedXml of(String xml) {
+        if (xml == null) {
+            return new ParsedXml(null, new Forms());
+        }
+
+        Forms forms = cache.getIfPresent(xml);
+        if (forms == null) {
+            forms = new Forms();
+            Forms existing = cache.asMap().putIfAbsent(xml, forms);
+            if (existing != null) {
+                forms = existing;
+            }
+        }
+        return new ParsedXml(xml, forms);
+    }
+
+    static long cachedDocuments() {
+        cache.cleanUp();
+        return cache.size();
+    }
+
+    /**
+     * @return the document, or null if the string isn't well formed XML. It must not be modified.
+     */
+    Document document() {
+        if (forms.document == null) {
+            synchronized (forms) {
+                if (forms.document == null) {
+                    Document parsed = parse(xml);
+                    forms.document = parsed != null ? parsed : UNPARSEABLE;
+                }
+            }
+        }
+        return forms.document != UNPARSEABLE ? (Document) forms.document : null;
+    }
+
+    /**
+     * @return the {@link CanonicalXml} form of the document, or null if it hasn't got one
+     */
+    String canonicalForm() {
+        if (forms.canonicalForm == null) {
+            Document parsed = document();
+            String form = null;
+            if (parsed != null) {
+                synchronized (parsed) {
+                    form = CanonicalXml.canonicalFormOf(parsed);
+                }
+            }
+            forms.canonicalForm = form != null ? form : NO_CANONICAL_FORM;
+        }
+        return forms.canonicalForm != NO_CANONICAL_FORM ? forms.canonicalForm : null;
+    }
+
+    static Document parse(String xml) {
+        if (xml == null) {
+            return null;
+        }
+
+        try {
+            DocumentBuilder documentBuilder;
+            synchronized (documentBuilderFactory) {
+                documentBuilder = documentBuilderFactory.newDocumentBuilder();
+            }
+            // Rather than the default of printing every failure to parse a body to stderr
+            documentBuilder.setErrorHandler(new DefaultHandler());
+            return documentBuilder.parse(new InputSource(new StringReader(xml)));
+        } catch (ParserConfigurationException e) {
+            return null;
+        } catch (SAXException e) {
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static DocumentBuilderFactory newDocumentBuilderFactory() {
+        // Configured as XMLUnit's own factories are, apart from node expansion
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try {
+            factory.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+        } catch (ParserConfigurationException e) {
+            // Not a Xerces based parser, so there's no deferred expansion to turn off
+        }
+        return factory;
+    }
+}
@@ -19,10 +19,36 @@ package com.github.tomakehurst.wiremock.matching.matchers.string;
 import com.github.tomakehurst.wiremock.matching.PatternMatch;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
 public abstract class PatternMatcher {
 
+    /**
+     * Relative costs used by {@link #estimatedCost()}. They are only meaningful compared to each other.
+     */
+    public static final int FREE = 0;
+    public static final int STRING_COMPARISON_COST = 2;
+    public static final int STRING_SEARCH_COST = 4;
+    public static final int REGEX_COST = 16;
+    public static final int JSON_PATH_COST = 64;
+    public static final int DOCUMENT_COMPARISON_COST = 128;
+
     public abstract PatternMatch matches(String str);
 
+    /**
+     * @return whether {@link #matches(String)} would match, without capturing any groups
+     */
+    public boolean test(String str) {
+        return matches(str).isMatched();
+    }
+
+    /**
+     * @return a rough, relative estimate of how expensive {@link #matches(String)} is, used to run cheap checks first
+     */
+    public abstract int estimatedCost();
+
     public static PatternMatcher any() {
         return AnyPatternMatcher.INSTANCE;
     }
@@ -32,7 +58,9 @@ public abstract class PatternMatcher {
     }
 
     public static PatternMatcher regex(String regex) {
-        return new RegexPatternMatcher(regex);
+        List<?> key = asList("matches", regex);
+        PatternMatcher matcher = InternedPatterns.matcherFor(key);
+        return matcher != null ? matcher : InternedPatterns.intern(key, new RegexPatternMatcher(regex));
     }
 
     public static PatternMatcher contains(String containedString) {
@@ -43,12 +71,24 @@ public abstract class PatternMatcher {
         return new EqualityPatternMatcher(value);
     }
 
+    public static PatternMatcher binaryEqualTo(byte[] value) {
+        return new BinaryEqualityPatternMatcher(value);
+    }
+
+    public static PatternMatcher binaryContains(byte[] containedBytes) {
+        return new BinaryContainsPatternMatcher(containedBytes);
+    }
+
     public static PatternMatcher equalsToJson(String value, JSONCompareMode compareMode) {
-        return new JsonEqualityPatternMatcher(value, compareMode);
+        List<?> key = asList("equalToJson", value, compareMode);
+        PatternMatcher matcher = InternedPatterns.matcherFor(key);
+        return matcher != null ? matcher : InternedPatterns.intern(key, new JsonEqualityPatternMatcher(value, compareMode));
     }
 
     public static PatternMatcher equalsToXml(String equalToXml) {
-        return new XmlEqualityPatternMatcher(equalToXml);
+        List<?> key = asList("equalToXml", equalToXml);
+        PatternMatcher matcher = InternedPatterns.matcherFor(key);
+        return matcher != null ? matcher : InternedPatterns.intern(key, new XmlEqualityPatternMatcher(equalToXml));
     }
 
     /**
@@ -70,7 +110,9 @@ public abstract class PatternMatcher {
     }
 
     public static PatternMatcher jsonPath(String jsonPath) {
-        return new JsonPathPatternMatcher(jsonPath);
+        List<?> key = asList("matchesJsonPath", jsonPath);
+        PatternMatcher matcher = InternedPatterns.matcherFor(key);
+        return matcher != null ? matcher : InternedPatterns.intern(key, new JsonPathPatternMatcher(jsonPath));
     }
 
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the work a regex may do against a single value, so that a pattern which backtracks catastrophically
+ * can't hold a request thread for seconds. Each evaluation counts the characters the regex engine reads, and
+ * gives up with a {@link RegexBudgetExceededException} once it has read more than the budget allows. The
+ * request pattern being matched treats that as a non-match.
+ *
+ * Each server has its own budget and count of overruns. Patterns may be shared by servers in one JVM, so the
+ * budget isn't held by them but set for the current thread, as the notifier is, while a server matches.
+ * With no budget set, values are handed to the regex engine unchanged.
+ */
+public final class RegexBudget {
+
+    private static final ThreadLocal<RegexBudget> current = new ThreadLocal<RegexBudget>();
+
+    private volatile int stepBudget = 0;
+    private final AtomicLong overruns = new AtomicLong();
+
+    /**
+     * Applies the budget to regexes evaluated on the current thread, until it is set to null
+     */
+    public static void set(RegexBudget budget) {
+        current.set(budget);
+    }
+
+    public static RegexBudget current() {
+        return current.get();
+    }
+
+    /**
+     * @param steps the number of characters each regex evaluation may read, or null for no limit
+     */
+    public void setStepBudget(Integer steps) {
+        if (steps != null && steps <= 0) {
+            throw new IllegalArgumentException("Regex step budget, when specified, must be greater than 0");
+        }
+        stepBudget = steps != null ? steps : 0;
+    }
+
+    public Integer getStepBudget() {
+        int steps = stepBudget;
+        return steps > 0 ? steps : null;
+    }
+
+    /**
+     * @return the value to give the regex engine, counting the characters read from it if the current thread's
+     * budget sets a limit
+     */
+    public static CharSequence budgeted(String value) {
+        RegexBudget budget = current.get();
+        int steps = budget != null ? budget.stepBudget : 0;
+        return steps > 0 ? new BudgetedCharSequence(value, steps) : value;
+    }
+
+    /**
+     * Counts an overrun against the current thread's budget
+     */
+    public static void recordOverrun() {
+        RegexBudget budget = current.get();
+        if (budget != null) {
+            budget.overruns.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of regex evaluations abandoned for exceeding this budget since it was created
+     */
+    public long overruns() {
+        return overruns.get();
+    }
+
+    private static class BudgetedCharSequence implements CharSequence {
+
+        private final String value;
+        private final int budget;
+        private int steps;
+
+        BudgetedCharSequence(String value, int budget) {
+            this.value = value;
+            this.budget = budget;
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps > budget) {
+                throw new RegexBudgetExceededException(budget, value);
+            }
+            return value.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            // Only used to extract groups once the match is complete
+            return value.substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
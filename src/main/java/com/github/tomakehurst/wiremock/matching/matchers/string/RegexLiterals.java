@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Static analysis of regular expressions for literal text that any matching string must contain.
+ */
+public class RegexLiterals {
+
+    private static final String META_CHARACTERS = ".[]{}()*+?^$|";
+    private static final String[] NO_LITERALS = new String[0];
+    private static final String HEX_DIGITS = "0123456789abcdefABCDEF";
+    private static final String OCTAL_DIGITS = "01234567";
+    private static final String DECIMAL_DIGITS = "0123456789";
+
+    private RegexLiterals() {
+    }
+
+    /**
+     * @return the literal text every string fully matching the regex must start with, or an
+     * empty string if there is none (e.g. the regex starts with a group, a character class or
+     * contains a top level alternation).
+     */
+    public static String prefixOf(String regex) {
+        if (hasTopLevelAlternation(regex)) {
+            return "";
+        }
+
+        StringBuilder prefix = new StringBuilder();
+        int i = regex.startsWith("^") ? 1 : 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    break;
+                }
+                prefix.append(regex.charAt(i + 1));
+                i += 2;
+            } else if (META_CHARACTERS.indexOf(c) != -1) {
+                break;
+            } else {
+                prefix.append(c);
+                i++;
+            }
+        }
+
+        if (i < regex.length() && isOptionalQuantifier(regex.charAt(i)) && prefix.length() > 0) {
+            prefix.setLength(prefix.length() - 1);
+        }
+
+        return prefix.toString();
+    }
+
+    /**
+     * @return runs of literal text that every string fully matching the regex must contain somewhere,
+     * found outside of groups, character classes and optional parts. Empty if the regex has a top level
+     * alternation, inline flags or quoting, which change what its literal text means.
+     */
+    public static String[] requiredLiteralsOf(String regex) {
+        if (hasTopLevelAlternation(regex) || hasInlineFlags(regex) || regex.contains("\\Q")) {
+            return NO_LITERALS;
+        }
+
+        List<String> literals = newArrayList();
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    flush(run, literals);
+                    i = skipEscape(regex, i);
+                } else {
+                    run.append(regex.charAt(i + 1));
+                    i += 2;
+                }
+            } else if (c == '[') {
+                flush(run, literals);
+                i = skipCharacterClass(regex, i);
+            } else if (c == '(') {
+                flush(run, literals);
+                i = skipGroup(regex, i);
+            } else if (isOptionalQuantifier(c) || c == '+') {
+                // The quantified character is optional unless the quantifier is '+'
+                if (c != '+' && run.length() > 0) {
+                    run.setLength(run.length() - 1);
+                }
+                flush(run, literals);
+                i = skipQuantifier(regex, i);
+            } else if (META_CHARACTERS.indexOf(c) != -1) {
+                flush(run, literals);
+                i++;
+            } else {
+                run.append(c);
+                i++;
+            }
+        }
+        flush(run, literals);
+
+        return literals.toArray(new String[literals.size()]);
+    }
+
+    /**
+     * @return false if the value is missing any of the literals, so can't match the regex they came from
+     */
+    public static boolean containsAll(String value, String[] literals) {
+        for (String literal: literals) {
+            if (value.indexOf(literal) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void flush(StringBuilder run, List<String> literals) {
+        if (run.length() > 0) {
+            literals.add(run.toString());
+            run.setLength(0);
+        }
+    }
+
+    /**
+     * @return the index just past the whole escape starting at i. Escapes that carry an argument, such as
+     * hex, unicode and octal escapes, control characters, named back references and unicode classes, are
+     * consumed whole so none of their argument is mistaken for literal text.
+     */
+    private static int skipEscape(String regex, int i) {
+        int j = i + 1;
+        if (j >= regex.length()) {
+            return regex.length();
+        }
+
+        char kind = regex.charAt(j++);
+        switch (kind) {
+            case 'x':
+                return j < regex.length() && regex.charAt(j) == '{' ? skipPast(regex, j, '}') : skipAtMost(regex, j, 2, HEX_DIGITS);
+            case 'u':
+                return skipAtMost(regex, j, 4, HEX_DIGITS);
+            case '0':
+                return skipAtMost(regex, j, 3, OCTAL_DIGITS);
+            case 'c':
+                return Math.min(j + 1, regex.length());
+            case 'k':
+                return j < regex.length() && regex.charAt(j) == '<' ? skipPast(regex, j, '>') : j;
+            case 'p':
+            case 'P':
+            case 'N':
+                return j < regex.length() && regex.charAt(j) == '{' ? skipPast(regex, j, '}') : Math.min(j + 1, regex.length());
+            default:
+                // Back references may run on over several digits
+                return Character.isDigit(kind) ? skipAtMost(regex, j, regex.length(), DECIMAL_DIGITS) : j;
+        }
+    }
+
+    private static int skipPast(String regex, int j, char close) {
+        int closeIndex = regex.indexOf(close, j);
+        return closeIndex < 0 ? regex.length() : closeIndex + 1;
+    }
+
+    private static int skipAtMost(String regex, int j, int count, String digits) {
+        int end = j;
+        while (end < regex.length() && end - j < count && digits.indexOf(regex.charAt(end)) != -1) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int skipCharacterClass(String regex, int i) {
+        int depth = 0;
+        for (int j = i; j < regex.length(); j++) {
+            char c = regex.charAt(j);
+            if (c == '\\') {
+                j++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && j > i + 1 && !(j == i + 2 && regex.charAt(i + 1) == '^')) {
+                depth--;
+                if (depth == 0) {
+                    return j + 1;
+                }
+            }
+        }
+        return regex.length();
+    }
+
+    private static int skipGroup(String regex, int i) {
+        int depth = 0;
+        for (int j = i; j < regex.length(); j++) {
+            char c = regex.charAt(j);
+            if (c == '\\') {
+                j++;
+            } else if (c == '[') {
+                j = skipCharacterClass(regex, j) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return j + 1;
+                }
+            }
+        }
+        return regex.length();
+    }
+
+    private static int skipQuantifier(String regex, int i) {
+        int j = i;
+        if (regex.charAt(j) == '{') {
+            int close = regex.indexOf('}', j);
+            j = close < 0 ? regex.length() : close + 1;
+        } else {
+            j++;
+        }
+        // Reluctant or possessive
+        if (j < regex.length() && (regex.charAt(j) == '?' || regex.charAt(j) == '+')) {
+            j++;
+        }
+        return j;
+    }
+
+    private static boolean hasInlineFlags(String regex) {
+        for (int i = regex.indexOf("(?"); i != -1; i = regex.indexOf("(?", i + 1)) {
+            if (i > 0 && regex.charAt(i - 1) == '\\') {
+                continue;
+            }
+            char next = i + 2 < regex.length() ? regex.charAt(i + 2) : ':';
+            if (next != ':' && next != '=' && next != '!' && next != '<') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOptionalQuantifier(char c) {
+        return c == '*' || c == '?' || c == '{';
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        boolean inCharacterClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inCharacterClass) {
+                inCharacterClass = c != ']';
+            } else if (c == '[') {
+                inCharacterClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import java.util.List;
+
+/**
+ * Syntax tree of a regular expression, as understood by RegexParser.
+ */
+abstract class RegexNode {
+
+    static class CharacterSet extends RegexNode {
+
+        /**
+         * Sorted, non-overlapping inclusive ranges as start, end pairs
+         */
+        final char[] ranges;
+
+        CharacterSet(char[] ranges) {
+            this.ranges = ranges;
+        }
+    }
+
+    static class Sequence extends RegexNode {
+
+        final List<RegexNode> items;
+
+        Sequence(List<RegexNode> items) {
+            this.items = items;
+        }
+    }
+
+    static class Alternation extends RegexNode {
+
+        final List<RegexNode> options;
+
+        Alternation(List<RegexNode> options) {
+            this.options = options;
+        }
+    }
+
+    static class Repetition extends RegexNode {
+
+        static final int UNBOUNDED = -1;
+
+        final RegexNode item;
+        final int min;
+        final int max;
+
+        Repetition(RegexNode item, int min, int max) {
+            this.item = item;
+            this.min = min;
+            this.max = max;
+        }
+    }
+}
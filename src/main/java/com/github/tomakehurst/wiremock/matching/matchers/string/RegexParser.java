@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Parses the subset of java.util.regex syntax CombinedRegexAutomaton can evaluate, throwing
+ * UnsupportedRegexException for anything whose meaning depends on more than the characters
+ * matched (back references, lookaround, boundaries, inline flags, possessive quantifiers).
+ */
+class RegexParser {
+
+    private static final int MAX_REPETITIONS = 100;
+
+    private static final char[] ANY_CHARACTER = { 0, Character.MAX_VALUE };
+    private static final char[] DIGITS = { '0', '9' };
+    private static final char[] WORD_CHARACTERS = { '0', '9', 'A', 'Z', '_', '_', 'a', 'z' };
+    private static final char[] WHITESPACE = { '\t', '\r', ' ', ' ' };
+
+    private final String regex;
+    private int position;
+
+    RegexParser(String regex) {
+        this.regex = regex;
+    }
+
+    RegexNode parse() {
+        position = regex.startsWith("^") ? 1 : 0;
+        RegexNode node = alternation(0);
+        if (position < regex.length()) {
+            throw unsupported();
+        }
+
+        return node;
+    }
+
+    private RegexNode alternation(int depth) {
+        List<RegexNode> options = newArrayList(sequence(depth));
+        while (next('|')) {
+            position++;
+            options.add(sequence(depth));
+        }
+
+        return options.size() == 1 ? options.get(0) : new RegexNode.Alternation(options);
+    }
+
+    private RegexNode sequence(int depth) {
+        List<RegexNode> items = newArrayList();
+        while (position < regex.length() && !next('|') && !next(')')) {
+            if (next('$') && position == regex.length() - 1 && depth == 0) {
+                position++;
+            } else {
+                items.add(quantified(atom(depth)));
+            }
+        }
+
+        return new RegexNode.Sequence(items);
+    }
+
+    private RegexNode atom(int depth) {
+        char c = regex.charAt(position++);
+        switch (c) {
+            case '(':
+                return group(depth);
+            case '[':
+                return new RegexNode.CharacterSet(characterClass());
+            case '.':
+                return new RegexNode.CharacterSet(ANY_CHARACTER);
+            case '\\':
+                return new RegexNode.CharacterSet(escape());
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+            case '^':
+            case '$':
+                throw unsupported();
+            default:
+                return new RegexNode.CharacterSet(literal(c));
+        }
+    }
+
+    private RegexNode group(int depth) {
+        if (next('?')) {
+            if (regex.startsWith("?:", position)) {
+                position += 2;
+            } else if (regex.startsWith("?<", position)
+                    && position + 2 < regex.length()
+                    && Character.isLetter(regex.charAt(position + 2))) {
+                position = regex.indexOf('>', position) + 1;
+                if (position == 0) {
+                    throw unsupported();
+                }
+            } else {
+                throw unsupported();
+            }
+        }
+
+        RegexNode node = alternation(depth + 1);
+        if (!next(')')) {
+            throw unsupported();
+        }
+        position++;
+        return node;
+    }
+
+    private RegexNode quantified(RegexNode item) {
+        if (position >= regex.length()) {
+            return item;
+        }
+
+        int min;
+        int max;
+        switch (regex.charAt(position)) {
+            case '*':
+                min = 0;
+                max = RegexNode.Repetition.UNBOUNDED;
+                position++;
+                break;
+            case '+':
+                min = 1;
+                max = RegexNode.Repetition.UNBOUNDED;
+                position++;
+                break;
+            case '?':
+                min = 0;
+                max = 1;
+                position++;
+                break;
+            case '{':
+                position++;
+                min = number();
+                max = min;
+                if (next(',')) {
+                    position++;
+                    max = next('}') ? RegexNode.Repetition.UNBOUNDED : number();
+                }
+                if (!next('}') || (max != RegexNode.Repetition.UNBOUNDED && max < min)) {
+                    throw unsupported();
+                }
+                position++;
+                break;
+            default:
+                return item;
+        }
+
+        // Reluctant quantifiers match the same whole strings as greedy ones, possessive ones don't
+        if (next('?')) {
+            position++;
+        } else if (next('+')) {
+            throw unsupported();
+        }
+
+        if (min > MAX_REPETITIONS || max > MAX_REPETITIONS) {
+            throw unsupported();
+        }
+
+        return new RegexNode.Repetition(item, min, max);
+    }
+
+    private int number() {
+        int start = position;
+        while (position < regex.length() && Character.isDigit(regex.charAt(position)) && position - start < 6) {
+            position++;
+        }
+
+        if (start == position) {
+            throw unsupported();
+        }
+        return Integer.parseInt(regex.substring(start, position));
+    }
+
+    private char[] characterClass() {
+        boolean negated = next('^');
+        if (negated) {
+            position++;
+        }
+
+        if (next(']')) {
+            throw unsupported();
+        }
+
+        List<char[]> items = newArrayList();
+        while (!next(']')) {
+            if (position >= regex.length() || next('[') || regex.startsWith("&&", position)) {
+                throw unsupported();
+            }
+
+            char[] item = classCharacter();
+            if (next('-') && position + 1 < regex.length() && regex.charAt(position + 1) != ']') {
+                position++;
+                char[] end = classCharacter();
+                if (!isSingleCharacter(item) || !isSingleCharacter(end) || end[0] < item[0]) {
+                    throw unsupported();
+                }
+                item = new char[] { item[0], end[0] };
+            }
+
+            items.add(item);
+        }
+        position++;
+
+        char[] ranges = union(items);
+        return negated ? complement(ranges) : ranges;
+    }
+
+    private char[] classCharacter() {
+        char c = regex.charAt(position++);
+        if (c == '\\') {
+            return escape();
+        } else if (c == '[') {
+            throw unsupported();
+        }
+
+        return literal(c);
+    }
+
+    private char[] escape() {
+        if (position >= regex.length()) {
+            throw unsupported();
+        }
+
+        char c = regex.charAt(position++);
+        switch (c) {
+            case 'd': return DIGITS;
+            case 'D': return complement(DIGITS);
+            case 'w': return WORD_CHARACTERS;
+            case 'W': return complement(WORD_CHARACTERS);
+            case 's': return WHITESPACE;
+            case 'S': return complement(WHITESPACE);
+            case 't': return single('\t');
+            case 'n': return single('\n');
+            case 'r': return single('\r');
+            case 'f': return single('\f');
+            case 'a': return single('\u0007');
+            case 'e': return single('\u001B');
+            case 'x': return literal(hex(2));
+            case 'u': return literal(hex(4));
+            default:
+                if (Character.isLetterOrDigit(c)) {
+                    throw unsupported();
+                }
+                return literal(c);
+        }
+    }
+
+    private char hex(int digits) {
+        if (position + digits > regex.length()) {
+            throw unsupported();
+        }
+
+        try {
+            char c = (char) Integer.parseInt(regex.substring(position, position + digits), 16);
+            position += digits;
+            return c;
+        } catch (NumberFormatException e) {
+            throw unsupported();
+        }
+    }
+
+    private char[] literal(char c) {
+        if (Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) {
+            throw unsupported();
+        }
+
+        return single(c);
+    }
+
+    private static char[] single(char c) {
+        return new char[] { c, c };
+    }
+
+    private static boolean isSingleCharacter(char[] ranges) {
+        return ranges.length == 2 && ranges[0] == ranges[1];
+    }
+
+    private static char[] union(List<char[]> items) {
+        List<char[]> ranges = newArrayList();
+        for (char[] item: items) {
+            for (int i = 0; i < item.length; i += 2) {
+                ranges.add(new char[] { item[i], item[i + 1] });
+            }
+        }
+
+        Collections.sort(ranges, new Comparator<char[]>() {
+            public int compare(char[] one, char[] two) {
+                return one[0] - two[0];
+            }
+        });
+
+        char[] merged = new char[ranges.size() * 2];
+        int size = 0;
+        for (char[] range: ranges) {
+            if (size > 0 && range[0] <= merged[size - 1] + 1) {
+                merged[size - 1] = (char) Math.max(merged[size - 1], range[1]);
+            } else {
+                merged[size++] = range[0];
+                merged[size++] = range[1];
+            }
+        }
+
+        return Arrays.copyOf(merged, size);
+    }
+
+    private static char[] complement(char[] ranges) {
+        char[] complement = new char[ranges.length + 2];
+        int size = 0;
+        int start = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > start) {
+                complement[size++] = (char) start;
+                complement[size++] = (char) (ranges[i] - 1);
+            }
+            start = ranges[i + 1] + 1;
+        }
+
+        if (start <= Character.MAX_VALUE) {
+            complement[size++] = (char) start;
+            complement[size++] = Character.MAX_VALUE;
+        }
+
+        return Arrays.copyOf(complement, size);
+    }
+
+    private boolean next(char c) {
+        return position < regex.length() && regex.charAt(position) == c;
+    }
+
+    private UnsupportedRegexException unsupported() {
+        return new UnsupportedRegexException(regex, position);
+    }
+}
@@ -25,14 +25,19 @@ import java.util.regex.Pattern;
 class RegexPatternMatcher extends PatternMatcher {
 
     private final Pattern pattern;
+    private final String[] requiredLiterals;
 
     public RegexPatternMatcher(String regex) {
-        pattern = Pattern.compile(regex, Pattern.DOTALL);
+        pattern = InternedPatterns.regex(regex);
+        requiredLiterals = RegexLiterals.requiredLiteralsOf(regex);
     }
 
     @Override
     public PatternMatch matches(String str) {
-        Matcher matcher = pattern.matcher(str);
+        if (!RegexLiterals.containsAll(str, requiredLiterals)) {
+            return PatternMatch.notMatched();
+        }
+        Matcher matcher = pattern.matcher(RegexBudget.budgeted(str));
         if (matcher.matches()) {
             String[] groups = new String[matcher.groupCount()];
             for (int i=0; i<matcher.groupCount(); i++) {
@@ -44,6 +49,16 @@ class RegexPatternMatcher extends PatternMatcher {
         }
     }
 
+    @Override
+    public boolean test(String str) {
+        return RegexLiterals.containsAll(str, requiredLiterals) && pattern.matcher(RegexBudget.budgeted(str)).matches();
+    }
+
+    @Override
+    public int estimatedCost() {
+        return REGEX_COST;
+    }
+
     @Override
     public String toString() {
         return "matches " + pattern;
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Evaluates JSON paths made only of field names and array indexes, like $.header.type or $.items[0]['id'],
+ * by streaming through the document rather than building a tree of it. Once the path is found or ruled out the
+ * rest of the document is still read, but only token by token, to check it's well formed.
+ *
+ * Wherever JsonPath's own behaviour is less obvious, such as indexing past the end of an array, stepping into
+ * a scalar, a malformed document or an object on the path repeating the field it's entered by (the tree keeps
+ * the last, the stream would find the first), the result is {@link Result#UNRESOLVED} and the path should be
+ * read from the tree instead.
+ */
+class StreamingJsonPath {
+
+    enum Result {
+        /** The path leads to a non-null value, or a non-empty object or array */
+        PRESENT,
+        /** The path leads to null, or an empty object or array */
+        EMPTY,
+        /** An object on the path doesn't have the next field, which JsonPath reports as an invalid path */
+        MISSING,
+        UNRESOLVED
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String path;
+    private final List<Object> steps;
+
+    private StreamingJsonPath(String path, List<Object> steps) {
+        this.path = path;
+        this.steps = steps;
+    }
+
+    /**
+     * @return the path ready to stream, or null if it uses anything besides field names and array indexes
+     */
+    static StreamingJsonPath compile(String jsonPath) {
+        if (jsonPath == null || !jsonPath.startsWith("$")) {
+            return null;
+        }
+
+        List<Object> steps = newArrayList();
+        int i = 1;
+        while (i < jsonPath.length()) {
+            char c = jsonPath.charAt(i);
+            if (c == '.') {
+                int end = i + 1;
+                while (end < jsonPath.length() && !isSpecial(jsonPath.charAt(end))) {
+                    end++;
+                }
+                if (end == i + 1) {
+                    return null;
+                }
+                steps.add(jsonPath.substring(i + 1, end));
+                i = end;
+            } else if (c == '[') {
+                int close = jsonPath.indexOf(']', i);
+                if (close < 0) {
+                    return null;
+                }
+                Object step = bracketedStep(jsonPath.substring(i + 1, close));
+                if (step == null) {
+                    return null;
+                }
+                steps.add(step);
+                i = close + 1;
+            } else {
+                return null;
+            }
+        }
+
+        return new StreamingJsonPath(jsonPath, steps);
+    }
+
+    private static Object bracketedStep(String step) {
+        if (step.matches("[0-9]{1,9}")) {
+            return Integer.valueOf(step);
+        }
+
+        if (step.length() > 2 && step.startsWith("'") && step.endsWith("'")) {
+            String name = step.substring(1, step.length() - 1);
+            for (int i = 0; i < name.length(); i++) {
+                if (isSpecial(name.charAt(i))) {
+                    return null;
+                }
+            }
+            return name;
+        }
+
+        return null;
+    }
+
+    private static boolean isSpecial(char c) {
+        return ".[]*()?@'\",:".indexOf(c) >= 0;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    Result evaluate(String json) {
+        try {
+            JsonParser parser = JSON_FACTORY.createParser(json);
+            try {
+                Result result = evaluate(parser);
+                return result != Result.UNRESOLVED ? readRest(parser, result) : result;
+            } finally {
+                parser.close();
+            }
+        } catch (IOException e) {
+            return Result.UNRESOLVED;
+        }
+    }
+
+    private Result evaluate(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != START_OBJECT && token != START_ARRAY) {
+            return Result.UNRESOLVED;
+        }
+
+        for (Object step: steps) {
+            if (step instanceof String) {
+                if (token != START_OBJECT) {
+                    return Result.UNRESOLVED;
+                }
+                if (!seekField(parser, (String) step)) {
+                    return Result.MISSING;
+                }
+            } else {
+                if (token != START_ARRAY) {
+                    return Result.UNRESOLVED;
+                }
+                if (!seekElement(parser, (Integer) step)) {
+                    return Result.UNRESOLVED;
+                }
+            }
+            token = parser.getCurrentToken();
+        }
+
+        return presenceOf(parser, token);
+    }
+
+    /**
+     * Reads to the end of the document, giving up on the result if it's malformed, if more follows it or if an
+     * object on the path has the field it's entered by again after the one found
+     */
+    private Result readRest(JsonParser parser, Result result) throws IOException {
+        int depth = depthOf(parser.getParsingContext());
+        int openPathObjects = Math.min(depth, steps.size());
+        while (depth > 0) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return Result.UNRESOLVED;
+            } else if (token == FIELD_NAME) {
+                if (depth <= openPathObjects && parser.getCurrentName().equals(steps.get(depth - 1))) {
+                    return Result.UNRESOLVED;
+                }
+            } else if (token == START_OBJECT || token == START_ARRAY) {
+                depth++;
+            } else if (token == END_OBJECT || token == END_ARRAY) {
+                depth--;
+                openPathObjects = Math.min(openPathObjects, depth);
+            }
+        }
+
+        return parser.nextToken() == null ? result : Result.UNRESOLVED;
+    }
+
+    private static int depthOf(JsonStreamContext context) {
+        int depth = 0;
+        for (JsonStreamContext parent = context.getParent(); parent != null; parent = parent.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static boolean seekField(JsonParser parser, String name) throws IOException {
+        JsonToken token = parser.nextToken();
+        while (token == FIELD_NAME) {
+            boolean found = name.equals(parser.getCurrentName());
+            parser.nextToken();
+            if (found) {
+                return true;
+            }
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+        return false;
+    }
+
+    private static boolean seekElement(JsonParser parser, int index) throws IOException {
+        for (int i = 0; ; i++) {
+            JsonToken token = parser.nextToken();
+            if (token == END_ARRAY || token == null) {
+                return false;
+            }
+            if (i == index) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+    }
+
+    private static Result presenceOf(JsonParser parser, JsonToken token) throws IOException {
+        if (token == VALUE_NULL) {
+            return Result.EMPTY;
+        } else if (token == START_OBJECT) {
+            return parser.nextToken() == END_OBJECT ? Result.EMPTY : Result.PRESENT;
+        } else if (token == START_ARRAY) {
+            return parser.nextToken() == END_ARRAY ? Result.EMPTY : Result.PRESENT;
+        }
+        return Result.PRESENT;
+    }
+}
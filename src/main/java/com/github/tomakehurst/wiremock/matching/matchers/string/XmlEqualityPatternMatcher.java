@@ -22,10 +22,15 @@ package com.github.tomakehurst.wiremock.matching.matchers.string;
 import com.github.tomakehurst.wiremock.matching.PatternMatch;
 import org.custommonkey.xmlunit.Diff;
 import org.custommonkey.xmlunit.XMLUnit;
-import org.xml.sax.SAXException;
-
-import java.io.IOException;
+import org.w3c.dom.Document;
 
+/**
+ * Documents that are canonically equal match without XMLUnit. Otherwise the expected document, parsed once
+ * when the matcher is created, is compared with the request's. DOM nodes keep caches that make even reading
+ * them from several threads at once unsafe, so both documents are locked while compared, the expected one
+ * first. As the request's document is shared by every stub it is matched against, comparisons of one request
+ * with several XML stubs, as when they are matched in parallel, take turns rather than run at once.
+ */
 public class XmlEqualityPatternMatcher extends PatternMatcher {
 
     static {
@@ -33,21 +38,50 @@ public class XmlEqualityPatternMatcher extends PatternMatcher {
     }
 
     private final String value;
+    private final Document control;
+    private final String canonicalControl;
 
     public XmlEqualityPatternMatcher(String value) {
         this.value = value;
+        this.control = ParsedXml.parse(value);
+        this.canonicalControl = control != null ? CanonicalXml.canonicalFormOf(control) : null;
     }
 
     @Override
     public PatternMatch matches(String str) {
-        try {
-            Diff diff = XMLUnit.compareXML(value, str);
-            return PatternMatch.fromMatched(diff.similar());
-        } catch (SAXException e) {
-            return PatternMatch.notMatched();
-        } catch (IOException e) {
-            return PatternMatch.notMatched();
+        return PatternMatch.fromMatched(test(str));
+    }
+
+    @Override
+    public boolean test(String str) {
+        if (control == null) {
+            return false;
+        }
+
+        ParsedXml parsed = ParsedXml.of(str);
+        if (canonicalControl != null) {
+            String canonicalForm = parsed.canonicalForm();
+            if (canonicalForm != null && canonicalForm.hashCode() == canonicalControl.hashCode()
+                    && canonicalForm.equals(canonicalControl)) {
+                return true;
+            }
         }
+
+        Document test = parsed.document();
+        if (test == null) {
+            return false;
+        }
+
+        synchronized (control) {
+            synchronized (test) {
+                return new Diff(control, test).similar();
+            }
+        }
+    }
+
+    @Override
+    public int estimatedCost() {
+        return DOCUMENT_COMPARISON_COST;
     }
 
     @Override
@@ -17,88 +17,125 @@ package com.github.tomakehurst.wiremock.servlet;
 
 import com.github.tomakehurst.wiremock.http.*;
 import com.github.tomakehurst.wiremock.jetty.ServletContainerUtils;
-import com.google.common.io.CharStreams;
+import com.google.common.io.ByteStreams;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.util.*;
 
+import static com.google.common.base.Charsets.ISO_8859_1;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Collections.list;
 
+/**
+ * Takes a snapshot of the request's URL, method, headers and whether it was made to a browser proxy when it
+ * is created, so that matching it against every stub doesn't go back to the servlet request each time.
+ * Parameters are only read, once, when first asked for, since reading them may consume a form encoded body.
+ * The body is read as bytes and only decoded, using the charset from the content type or ISO-8859-1 as
+ * servlet readers do, when it is first asked for as a string.
+ */
 public class HttpServletRequestAdapter implements Request {
 	
 	private final HttpServletRequest request;
-	private String cachedBody;
+	private final String url;
+	private final RequestMethod method;
+	private final Map<String, HttpHeader> headersByLowerCaseKey;
+	private volatile HttpHeaders headers;
+	private final boolean browserProxyRequest;
+	private volatile Map<String, HttpParameter> parametersByLowerCaseKey;
+	private volatile HttpParameters parameters;
+	private volatile byte[] cachedBody;
+	private volatile String cachedBodyAsString;
 	
 	public HttpServletRequestAdapter(HttpServletRequest request) {
 		this.request = request;
+		this.url = urlOf(request);
+		this.method = RequestMethod.valueOf(request.getMethod().toUpperCase());
+		this.headersByLowerCaseKey = headersOf(request);
+		this.browserProxyRequest = ServletContainerUtils.isBrowserProxyRequest(request);
 	}
 
-	@Override
-	public String getUrl() {
+	private static String urlOf(HttpServletRequest request) {
 		String url = request.getRequestURI();
 
 		if (!isNullOrEmpty(request.getContextPath())) {
 			url = url.replace(request.getContextPath(), "");
 		}
 
-		return withQueryStringIfPresent(url);
+		return withQueryStringIfPresent(request, url);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, HttpHeader> headersOf(HttpServletRequest request) {
+		Map<String, HttpHeader> headers = new LinkedHashMap<String, HttpHeader>();
+		for (String key: list((Enumeration<String>) request.getHeaderNames())) {
+			String lowerCaseKey = CaseInsensitiveKey.lowerCaseOf(key);
+			if (!headers.containsKey(lowerCaseKey)) {
+				headers.put(lowerCaseKey, new HttpHeader(key, list((Enumeration<String>) request.getHeaders(key))));
+			}
+		}
+		return headers;
+	}
+
+	@Override
+	public String getUrl() {
+		return url;
 	}
 	
 	@Override
 	public String getAbsoluteUrl() {
-		return withQueryStringIfPresent(request.getRequestURL().toString());
+		return withQueryStringIfPresent(request, request.getRequestURL().toString());
 	}
 
-    private String withQueryStringIfPresent(String url) {
+    private static String withQueryStringIfPresent(HttpServletRequest request, String url) {
         return url + (isNullOrEmpty(request.getQueryString()) ? "" : "?" + request.getQueryString());
     }
 
 	@Override
 	public RequestMethod getMethod() {
-		return RequestMethod.valueOf(request.getMethod().toUpperCase());
+		return method;
 	}
 
 	@Override
-	public String getBodyAsString() {
-		if (cachedBody == null) {
+	public byte[] getBody() {
+		byte[] body = cachedBody;
+		if (body == null) {
 			try {
-                cachedBody = CharStreams.toString(request.getReader());
+				body = ByteStreams.toByteArray(request.getInputStream());
 			} catch (IOException ioe) {
 				throw new RuntimeException(ioe);
 			}
+			cachedBody = body;
 		}
 
-		return cachedBody;
+		return body;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	public String getHeader(String key) {
-	    List<String> headerNames = list(request.getHeaderNames());
-		for (String currentKey: headerNames) {
-			if (currentKey.toLowerCase().equals(key.toLowerCase())) {
-				return request.getHeader(currentKey);
-			}
+	public String getBodyAsString() {
+		String bodyAsString = cachedBodyAsString;
+		if (bodyAsString == null) {
+			bodyAsString = new String(getBody(), contentTypeHeader().charsetOr(ISO_8859_1));
+			cachedBodyAsString = bodyAsString;
 		}
-		
-		return null;
+
+		return bodyAsString;
+	}
+
+	@Override
+	public String getHeader(String key) {
+		HttpHeader header = headersByLowerCaseKey.get(CaseInsensitiveKey.lowerCaseOf(key));
+		return header != null && header.isPresent() ? header.firstValue() : null;
 	}
 
     @Override
-    @SuppressWarnings("unchecked")
     public HttpHeader header(String key) {
-        List<String> headerNames = list(request.getHeaderNames());
-        for (String currentKey: headerNames) {
-            if (currentKey.toLowerCase().equals(key.toLowerCase())) {
-                List<String> valueList = list(request.getHeaders(currentKey));
-                return new HttpHeader(key, valueList);
-            }
+        HttpHeader header = headersByLowerCaseKey.get(CaseInsensitiveKey.lowerCaseOf(key));
+        if (header == null || !header.isPresent()) {
+            return HttpHeader.absent(key);
         }
 
-        return HttpHeader.absent(key);
+        return header.key().equals(key) ? header : new HttpHeader(key, header.values());
     }
 
     @Override
@@ -113,56 +150,61 @@ public class HttpServletRequestAdapter implements Request {
 
     @Override
     public HttpHeaders getHeaders() {
-        List<HttpHeader> headerList = newArrayList();
-        for (String key: getAllHeaderKeys()) {
-            headerList.add(header(key));
+        if (headers == null) {
+            headers = new HttpHeaders(headersByLowerCaseKey.values());
         }
-
-        return new HttpHeaders(headerList);
+        return headers;
     }
 
-    @SuppressWarnings("unchecked")
 	@Override
 	public Set<String> getAllHeaderKeys() {
 		LinkedHashSet<String> headerKeys = new LinkedHashSet<String>();
-		for (Enumeration<String> headerNames = request.getHeaderNames(); headerNames.hasMoreElements();) {
-			headerKeys.add(headerNames.nextElement());
+		for (HttpHeader header: headersByLowerCaseKey.values()) {
+			headerKeys.add(header.key());
 		}
 		
 		return headerKeys;
 	}
 
-    @SuppressWarnings("unchecked")
     @Override
     public HttpParameter parameter(String key) {
-        //cant directly use request.getParameterValues(key) since is case sensitive
-        List<String> parameterNames = list(request.getParameterNames());
-        for (String currentKey: parameterNames) {
-            if (currentKey.toLowerCase().equals(key.toLowerCase())) {
-                List<String> valueList = Arrays.asList(request.getParameterValues(currentKey));
-                return new HttpParameter(key, valueList);
-            }
+        HttpParameter parameter = parametersByLowerCaseKey().get(CaseInsensitiveKey.lowerCaseOf(key));
+        if (parameter == null || !parameter.isPresent()) {
+            return HttpParameter.absent(key);
         }
 
-        return HttpParameter.absent(key);
+        return parameter.key().equals(key) ? parameter : new HttpParameter(key, parameter.values());
     }
 
     @Override
     public HttpParameters getParameters() {
-        List<HttpParameter> parameterList = newArrayList();
-        for (String key: getAllParameterKeys()) {
-            parameterList.add(parameter(key));
+        if (parameters == null) {
+            parameters = new HttpParameters(parametersByLowerCaseKey().values());
         }
-
-        return new HttpParameters(parameterList);
+        return parameters;
     }
 
     @SuppressWarnings("unchecked")
+    private Map<String, HttpParameter> parametersByLowerCaseKey() {
+        Map<String, HttpParameter> current = parametersByLowerCaseKey;
+        if (current == null) {
+            //cant directly use request.getParameterValues(key) since is case sensitive
+            current = new LinkedHashMap<String, HttpParameter>();
+            for (String key: list((Enumeration<String>) request.getParameterNames())) {
+                String lowerCaseKey = CaseInsensitiveKey.lowerCaseOf(key);
+                if (!current.containsKey(lowerCaseKey)) {
+                    current.put(lowerCaseKey, new HttpParameter(key, Arrays.asList(request.getParameterValues(key))));
+                }
+            }
+            parametersByLowerCaseKey = current;
+        }
+        return current;
+    }
+
     public Set<String> getAllParameterKeys() {
         LinkedHashSet<String> parameterKeys = new LinkedHashSet<String>();
-        for (Enumeration<String> parameterNames = request.getParameterNames(); parameterNames
-                .hasMoreElements();) {
-            parameterKeys.add(parameterNames.nextElement());
+        for (HttpParameter parameter: parametersByLowerCaseKey().values()) {
+            parameterKeys.add(parameter.key());
         }
 
         return parameterKeys;
@@ -170,7 +212,7 @@ public class HttpServletRequestAdapter implements Request {
 
     @Override
 	public boolean isBrowserProxyRequest() {
-		return ServletContainerUtils.isBrowserProxyRequest(request);
+		return browserProxyRequest;
 	}
 
 }
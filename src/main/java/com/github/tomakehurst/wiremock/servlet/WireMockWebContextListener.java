@@ -55,6 +55,9 @@ public class WireMockWebContextListener implements ServletContextListener {
                 mappingsSaver,
                 new StubFilesRepository(fileSource.child(WireMockServer.FILES_ROOT)),
                 journalCapacity,
+                false,
+                0,
+                null,
                 new NotImplementedContainer());
         AdminRequestHandler adminRequestHandler = new AdminRequestHandler(wireMockApp, new BasicResponseRenderer());
         StubRequestHandler stubRequestHandler = new StubRequestHandler(wireMockApp,
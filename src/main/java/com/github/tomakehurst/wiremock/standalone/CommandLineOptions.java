@@ -40,6 +40,9 @@ public class CommandLineOptions implements Options {
     private static final String DISABLE_REQUEST_JOURNAL = "no-request-journal";
     private static final String JOURNAL_CAPACITY = "journal-capacity";
     private static final String ROOT_DIR = "root-dir";
+    private static final String COMPILED_MATCHERS = "compiled-matchers";
+    private static final String PARALLEL_MATCHING_THRESHOLD = "parallel-matching-threshold";
+    private static final String REGEX_STEP_BUDGET = "regex-step-budget";
 
     private final OptionSet optionSet;
 	private String helpText;
@@ -58,6 +61,9 @@ public class CommandLineOptions implements Options {
 		optionParser.accepts(ENABLE_BROWSER_PROXYING, "Allow wiremock to be set as a browser's proxy server");
         optionParser.accepts(DISABLE_REQUEST_JOURNAL, "Disable the request journal (to avoid heap growth when running wiremock for long periods without reset)");
         optionParser.accepts(JOURNAL_CAPACITY, "Specify the maximum amount of requests maintained in the journal, older are discarded. If not set then journal is unbounded.").withRequiredArg();
+        optionParser.accepts(COMPILED_MATCHERS, "Compile stub request patterns into flattened matchers when they are added");
+        optionParser.accepts(PARALLEL_MATCHING_THRESHOLD, "Match requests against stubs concurrently when there are at least this many candidate stubs").withRequiredArg();
+        optionParser.accepts(REGEX_STEP_BUDGET, "Treat a regex as not matching once it has read this many characters of a single value. If not set then regexes are unbounded.").withRequiredArg();
 		optionParser.accepts(HELP, "Print this message");
 		
 		optionSet = optionParser.parse(args);
@@ -74,6 +80,14 @@ public class CommandLineOptions implements Options {
             throw new IllegalArgumentException("Request journal must be enabled to record stubs");
         }
 
+        if (parallelMatchingThreshold() < 0) {
+            throw new IllegalArgumentException("Parallel matching threshold, when specified, must be greater or equal to 0");
+        }
+
+        if (regexStepBudget() != null && regexStepBudget() <= 0) {
+            throw new IllegalArgumentException("Regex step budget, when specified, must be greater than 0");
+        }
+
         if (!isValidJournalCapacity()) {
             throw new IllegalArgumentException("Journal capacity, when specified, must be greater or equal to 0");
         }
@@ -198,6 +212,29 @@ public class CommandLineOptions implements Options {
         return optionSet.has(DISABLE_REQUEST_JOURNAL);
     }
 
+    @Override
+    public boolean compiledMatchersEnabled() {
+        return optionSet.has(COMPILED_MATCHERS);
+    }
+
+    @Override
+    public int parallelMatchingThreshold() {
+        if (optionSet.has(PARALLEL_MATCHING_THRESHOLD)) {
+            return Integer.parseInt((String) optionSet.valueOf(PARALLEL_MATCHING_THRESHOLD));
+        }
+
+        return 0;
+    }
+
+    @Override
+    public Integer regexStepBudget() {
+        if (optionSet.has(REGEX_STEP_BUDGET)) {
+            return Integer.valueOf((String) optionSet.valueOf(REGEX_STEP_BUDGET));
+        }
+
+        return null;
+    }
+
     @Override
     public Integer journalCapacity() {
         if (specifiesJournalCapacity()) {
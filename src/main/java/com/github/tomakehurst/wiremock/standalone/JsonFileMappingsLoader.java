@@ -16,12 +16,14 @@ package com.github.tomakehurst.wiremock.standalone;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.TextFile;
 import com.github.tomakehurst.wiremock.stubbing.JsonStubMappingCreator;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.github.tomakehurst.wiremock.stubbing.StubMappings;
 import com.google.common.base.Predicate;
 import java.util.Collections;
 import java.util.List;
 
 import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
 
 public class JsonFileMappingsLoader implements MappingsLoader {
 
@@ -39,10 +41,12 @@ public class JsonFileMappingsLoader implements MappingsLoader {
     // and with file mappings we want to preserve the original order
     Collections.reverse(fileMappings);
     Iterable<TextFile> mappingFiles = filter(fileMappings, byFileExtension("json"));
+    List<StubMapping> mappings = newArrayList();
     for (TextFile mappingFile : mappingFiles) {
-      jsonStubMappingCreator
-          .addMappingFrom(mappingFile.relativePath(), mappingFile.readContents());
+      mappings.add(jsonStubMappingCreator
+          .mappingFrom(mappingFile.relativePath(), mappingFile.readContents()));
     }
+    stubMappings.addMappings(mappings);
   }
 
   private Predicate<TextFile> byFileExtension(final String extension) {
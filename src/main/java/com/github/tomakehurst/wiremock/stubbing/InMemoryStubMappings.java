@@ -18,24 +18,45 @@ package com.github.tomakehurst.wiremock.stubbing;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.matching.MatchedGroups;
-import com.github.tomakehurst.wiremock.matching.PatternMatch;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
 import com.google.common.collect.ImmutableList;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.stubbing.StubMapping.NOT_CONFIGURED;
+import static com.google.common.collect.Lists.newArrayList;
 
 
 public class InMemoryStubMappings implements StubMappings {
 	
 	private final SortedConcurrentMappingSet mappings = new SortedConcurrentMappingSet();
 	private final ConcurrentHashMap<String, Scenario> scenarioMap = new ConcurrentHashMap<String, Scenario>();
+	private volatile StubClassifier classifier;
+	private final StubMatchCache matchCache = new StubMatchCache();
+	private final boolean compiledMatchersEnabled;
+	private final ParallelStubMatcher parallelMatcher;
+
+	/**
+	 * @param parallelMatchingThreshold the number of candidate mappings above which they are matched
+	 *                                  concurrently, or 0 to always match on the request thread
+	 */
+	public InMemoryStubMappings(boolean compiledMatchersEnabled, int parallelMatchingThreshold) {
+		this.compiledMatchersEnabled = compiledMatchersEnabled;
+		this.parallelMatcher = parallelMatchingThreshold > 0 ? new ParallelStubMatcher(parallelMatchingThreshold) : null;
+	}
+
+	public InMemoryStubMappings() {
+		this(false, 0);
+	}
 
     private class MatchingStubMapping {
         private StubMapping mapping;
         private MatchedGroups groups;
+        private boolean cacheable;
 
         public MatchingStubMapping(StubMapping mapping, MatchedGroups groups) {
             this.mapping = mapping;
@@ -54,15 +75,112 @@ public class InMemoryStubMappings implements StubMappings {
 	}
 
     private MatchingStubMapping findMatchingMapping(Request request) {
-        for (StubMapping mapping: mappings) {
+        // Read the version first so a result found while mappings change is never cached as current
+        long version = matchCache.version();
+        StubClassifier classifier = classifier();
+        // Parameters are left out of the fingerprint unless classifying showed candidates for it constrain them,
+        // as reading them may consume a form encoded body
+        List<Object> fingerprint = matchCache.fingerprintOf(request, classifier, false);
+        StubMatchCache.CachedMatch cachedMatch = matchCache.get(fingerprint, version);
+        if (cachedMatch != null && cachedMatch.dependsOnParameters()) {
+            cachedMatch = matchCache.get(matchCache.fingerprintOf(request, classifier, true), version);
+        }
+        if (cachedMatch != null) {
+            return new MatchingStubMapping(cachedMatch.getMapping(), cachedMatch.getGroups());
+        }
+
+        Iterable<StubMapping> candidates = mappings.candidatesFor(request);
+        StubClassifier.Classification classification = classifier.classify(request, candidates);
+        MatchingStubMapping result = parallelMatcher != null && mappings.size() >= parallelMatcher.threshold() ?
+                findFirstMatchConcurrently(request, candidates, classification) :
+                findFirstMatchOnRequestThread(request, candidates, classification);
+
+        if (result.cacheable && classification.dependsOnParameters()) {
+            matchCache.putDependingOnParameters(fingerprint, version);
+            matchCache.put(matchCache.fingerprintOf(request, classifier, true), version, result.mapping, result.groups);
+        } else if (result.cacheable) {
+            matchCache.put(fingerprint, version, result.mapping, result.groups);
+        }
+        return result;
+    }
+
+    private MatchingStubMapping findFirstMatchConcurrently(Request request, Iterable<StubMapping> candidates,
+            StubClassifier.Classification classification) {
+        MatchingStubMapping result = new MatchingStubMapping(NOT_CONFIGURED, MatchedGroups.noGroups());
+        boolean cacheable = !classification.dependsOnBody() && !mappings.candidatesDependOnBody(request);
+        List<StubMapping> eligibleMappings = newArrayList();
+        for (StubMapping mapping: candidates) {
+            if (classification.mayMatch(mapping)) {
+                cacheable &= !dependsOnBodyOrScenarioState(mapping);
+                if (mapping.isIndependentOfScenarioState() || mapping.requiresCurrentScenarioState()) {
+                    eligibleMappings.add(mapping);
+                }
+            }
+        }
+
+        StubMapping firstMatch = parallelMatcher.firstMatch(eligibleMappings, request);
+        if (firstMatch != null) {
+            result = new MatchingStubMapping(firstMatch, groupsFor(firstMatch, request));
+        }
+
+        result.cacheable = cacheable;
+        return result;
+    }
+
+    private MatchingStubMapping findFirstMatchOnRequestThread(Request request, Iterable<StubMapping> candidates,
+            StubClassifier.Classification classification) {
+        MatchingStubMapping result = new MatchingStubMapping(NOT_CONFIGURED, MatchedGroups.noGroups());
+        boolean cacheable = !classification.dependsOnBody() && !mappings.candidatesDependOnBody(request);
+        for (StubMapping mapping: candidates) {
+            if (!classification.mayMatch(mapping)) {
+                continue;
+            }
+
+            cacheable &= !dependsOnBodyOrScenarioState(mapping);
             if (mapping.isIndependentOfScenarioState() || mapping.requiresCurrentScenarioState()) {
-                PatternMatch match = mapping.getRequest().isMatchedBy(request);
-                if (match.isMatched()) {
-                    return new MatchingStubMapping(mapping, match.getGroups());
+                if (mapping.getRequest().test(request)) {
+                    result = new MatchingStubMapping(mapping, groupsFor(mapping, request));
+                    break;
                 }
             }
         }
-        return new MatchingStubMapping(NOT_CONFIGURED, MatchedGroups.noGroups());
+
+        result.cacheable = cacheable;
+        return result;
+    }
+
+    /**
+     * Candidates are only tested for a match, so groups are captured here for the winning mapping,
+     * and only if its response is templated.
+     */
+    private static MatchedGroups groupsFor(StubMapping mapping, Request request) {
+        if (mapping.getResponse().getBodyTemplate() == null) {
+            return MatchedGroups.noGroups();
+        }
+        return mapping.getRequest().isMatchedBy(request).getGroups();
+    }
+
+    private static boolean dependsOnBodyOrScenarioState(StubMapping mapping) {
+        List<ValuePattern> bodyPatterns = mapping.getRequest().getBodyPatterns();
+        return mapping.isInScenario() || (bodyPatterns != null && !bodyPatterns.isEmpty());
+    }
+
+    /**
+     * Built lazily after mappings change. Building and discarding both hold this object's lock, so a
+     * classifier read after a change to the match cache version always includes that change.
+     */
+    private StubClassifier classifier() {
+        StubClassifier current = classifier;
+        if (current == null) {
+            synchronized (this) {
+                if (classifier == null) {
+                    classifier = new StubClassifier(mappings);
+                }
+                current = classifier;
+            }
+        }
+
+        return current;
     }
 
 	private void notifyIfResponseNotConfigured(Request request, StubMapping matchingMapping) {
@@ -73,21 +191,52 @@ public class InMemoryStubMappings implements StubMappings {
 
 	@Override
 	public void addMapping(StubMapping mapping) {
-		if (mapping.isInScenario()) {
-			scenarioMap.putIfAbsent(mapping.getScenarioName(), Scenario.inStartedState());
-			Scenario scenario = scenarioMap.get(mapping.getScenarioName());
-			mapping.setScenario(scenario);
+		addMappings(Collections.singletonList(mapping));
+	}
+
+	/**
+	 * Adds the mappings as if one at a time, but sorting each index once, which matters when loading
+	 * many mappings from files
+	 */
+	@Override
+	public void addMappings(List<StubMapping> newMappings) {
+		// Built first, so a mapping rejected for an invalid pattern leaves nothing behind
+		for (StubMapping mapping: newMappings) {
+			if (compiledMatchersEnabled) {
+				mapping.getRequest().compileMatcher();
+			} else {
+				mapping.getRequest().prepareMatcher();
+			}
+		}
+
+		for (StubMapping mapping: newMappings) {
+			if (mapping.isInScenario()) {
+				scenarioMap.putIfAbsent(mapping.getScenarioName(), Scenario.inStartedState());
+				Scenario scenario = scenarioMap.get(mapping.getScenarioName());
+				mapping.setScenario(scenario);
+			}
 		}
 		
-		mappings.add(mapping);
+		mappings.addAll(newMappings);
+		mappingsChanged();
 	}
 
 	@Override
 	public void reset() {
 		mappings.clear();
         scenarioMap.clear();
+		mappingsChanged();
+	}
+
+	private synchronized void mappingsChanged() {
+		classifier = null;
+		matchCache.invalidate();
 	}
 	
+	Set<String> scenarioNames() {
+		return scenarioMap.keySet();
+	}
+
 	@Override
 	public void resetScenarios() {
 		for (Scenario scenario: scenarioMap.values()) {
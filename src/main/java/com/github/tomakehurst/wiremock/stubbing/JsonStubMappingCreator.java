@@ -23,9 +23,13 @@ public class JsonStubMappingCreator {
   }
 
   public void addMappingFrom(String filePath, String mappingSpecJson) {
+    stubMappings.addMapping(mappingFrom(filePath, mappingSpecJson));
+  }
+
+  public StubMapping mappingFrom(String filePath, String mappingSpecJson) {
     StubMapping mapping = StubMapping.buildFrom(mappingSpecJson);
     mapping.setFilePath(filePath);
     mapping.setTransient(false);
-    stubMappings.addMapping(mapping);
+    return mapping;
   }
 }
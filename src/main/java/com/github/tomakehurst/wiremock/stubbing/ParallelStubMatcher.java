@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.common.LocalNotifier;
+import com.github.tomakehurst.wiremock.common.Notifier;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.matchers.string.RegexBudget;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Finds the first of a priority ordered list of stub mappings that matches a request by splitting the list
+ * into chunks and evaluating them concurrently on a shared pool. Chunks are scanned in order, and once a chunk
+ * finds a match every later chunk stops, so the result is always the same as a sequential scan.
+ *
+ * The request is shared between threads, so its body and parameters are read up front on the calling thread,
+ * where the servlet container expects them to be read.
+ */
+class ParallelStubMatcher {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MINIMUM_CHUNK_SIZE = 16;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final ExecutorService SHARED_POOL = Executors.newFixedThreadPool(THREADS,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("wiremock-stub-matcher-%d").build());
+
+    private final int threshold;
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    ParallelStubMatcher(int threshold) {
+        this(threshold, SHARED_POOL, THREADS);
+    }
+
+    ParallelStubMatcher(int threshold, ExecutorService executor, int parallelism) {
+        this.threshold = threshold;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    int threshold() {
+        return threshold;
+    }
+
+    /**
+     * @return the first matching mapping, or null if none match
+     */
+    StubMapping firstMatch(List<StubMapping> mappings, Request request) {
+        if (mappings.size() < threshold || parallelism < 2) {
+            return scan(mappings, request, 0, mappings.size(), 0, new AtomicInteger(NO_MATCH));
+        }
+
+        readSharedStateOf(request, mappings);
+
+        int chunkSize = Math.max(MINIMUM_CHUNK_SIZE, mappings.size() / (parallelism * CHUNKS_PER_THREAD) + 1);
+        int chunkCount = (mappings.size() + chunkSize - 1) / chunkSize;
+        AtomicInteger firstMatchingChunk = new AtomicInteger(NO_MATCH);
+        AtomicReferenceArray<StubMapping> matches = new AtomicReferenceArray<StubMapping>(chunkCount);
+
+        List<Future<?>> futures = newArrayList();
+        Notifier notifier = notifier();
+        RegexBudget regexBudget = RegexBudget.current();
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            futures.add(executor.submit(new ChunkScan(mappings, request, chunk, chunkSize, firstMatchingChunk, matches, notifier, regexBudget)));
+        }
+
+        matches.set(0, scan(mappings, request, 0, Math.min(chunkSize, mappings.size()), 0, firstMatchingChunk));
+        if (matches.get(0) != null) {
+            cancelFrom(futures, 0);
+            return matches.get(0);
+        }
+
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            awaitQuietly(futures.get(chunk - 1));
+            if (matches.get(chunk) != null) {
+                cancelFrom(futures, chunk);
+                return matches.get(chunk);
+            }
+        }
+
+        return null;
+    }
+
+    private static void cancelFrom(List<Future<?>> futures, int index) {
+        for (Future<?> future: futures.subList(index, futures.size())) {
+            future.cancel(false);
+        }
+    }
+
+    private static void readSharedStateOf(Request request, List<StubMapping> mappings) {
+        boolean needsBody = false;
+        boolean needsParameters = false;
+        for (StubMapping mapping: mappings) {
+            needsBody |= mapping.getRequest().getBodyPatterns() != null;
+            needsParameters |= mapping.getRequest().getParameters() != null;
+        }
+
+        if (needsBody) {
+            request.getBodyAsString();
+        }
+        if (needsParameters) {
+            request.getParameters();
+        }
+    }
+
+    private static StubMapping scan(List<StubMapping> mappings,
+                                   Request request,
+                                   int from,
+                                   int to,
+                                   int chunk,
+                                   AtomicInteger firstMatchingChunk) {
+        for (int i = from; i < to; i++) {
+            if (firstMatchingChunk.get() < chunk) {
+                return null;
+            }
+
+            StubMapping mapping = mappings.get(i);
+            if (mapping.getRequest().test(request)) {
+                lowerTo(firstMatchingChunk, chunk);
+                return mapping;
+            }
+        }
+
+        return null;
+    }
+
+    private static void lowerTo(AtomicInteger value, int candidate) {
+        int current = value.get();
+        while (candidate < current && !value.compareAndSet(current, candidate)) {
+            current = value.get();
+        }
+    }
+
+    private static void awaitQuietly(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static class ChunkScan implements Callable<Void> {
+
+        private final List<StubMapping> mappings;
+        private final Request request;
+        private final int chunk;
+        private final int chunkSize;
+        private final AtomicInteger firstMatchingChunk;
+        private final AtomicReferenceArray<StubMapping> matches;
+        private final Notifier notifier;
+        private final RegexBudget regexBudget;
+
+        ChunkScan(List<StubMapping> mappings,
+                  Request request,
+                  int chunk,
+                  int chunkSize,
+                  AtomicInteger firstMatchingChunk,
+                  AtomicReferenceArray<StubMapping> matches,
+                  Notifier notifier,
+                  RegexBudget regexBudget) {
+            this.mappings = mappings;
+            this.request = request;
+            this.chunk = chunk;
+            this.chunkSize = chunkSize;
+            this.firstMatchingChunk = firstMatchingChunk;
+            this.matches = matches;
+            this.notifier = notifier;
+            this.regexBudget = regexBudget;
+        }
+
+        @Override
+        public Void call() {
+            LocalNotifier.set(notifier);
+            RegexBudget.set(regexBudget);
+            try {
+                int from = chunk * chunkSize;
+                matches.set(chunk, scan(mappings, request, from, Math.min(from + chunkSize, mappings.size()), chunk, firstMatchingChunk));
+            } finally {
+                LocalNotifier.set(null);
+                RegexBudget.set(null);
+            }
+            return null;
+        }
+    }
+}
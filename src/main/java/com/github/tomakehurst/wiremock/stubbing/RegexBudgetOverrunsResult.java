@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * The number of regex evaluations abandoned for exceeding the regex budget, and the stub mappings that gave up
+ * matching a request because of one
+ */
+public class RegexBudgetOverrunsResult {
+
+    private final long overruns;
+    private final List<StubMapping> mappings;
+
+    @JsonCreator
+    public RegexBudgetOverrunsResult(@JsonProperty("overruns") long overruns,
+                                     @JsonProperty("mappings") List<StubMapping> mappings) {
+        this.overruns = overruns;
+        this.mappings = mappings;
+    }
+
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public List<StubMapping> getMappings() {
+        return mappings;
+    }
+}
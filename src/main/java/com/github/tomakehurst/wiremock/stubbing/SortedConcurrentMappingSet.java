@@ -15,22 +15,69 @@
  */
 package com.github.tomakehurst.wiremock.stubbing;
 
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
+import com.github.tomakehurst.wiremock.matching.matchers.string.RegexLiterals;
+import com.google.common.collect.Iterables;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+
 public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
 
+	private static final Comparator<StubMapping> PRIORITY_THEN_REVERSE_INSERTION_ORDER = sortedByPriorityThenReverseInsertionOrder();
+
 	private AtomicLong insertionCount;
-	private ConcurrentSkipListSet<StubMapping> mappingSet;
+
+	/**
+	 * Request threads only ever read immutable, sorted snapshots published through volatile
+	 * references, while add and clear copy and republish them under this set's lock.
+	 */
+	private volatile SortedMappingArray mappingSet;
+
+	/**
+	 * Mappings with an exact URL, keyed by method then URL, mappings with a URL pattern simple
+	 * enough to be compiled into a combined automaton, and other URL patterns starting with literal
+	 * text, keyed by that text. Anything else can't be looked up by URL and lives in unindexedMappings.
+	 *
+	 * Mappings with an exact URL whose only body pattern is equalTo, as recorded mappings are, are keyed by
+	 * method, URL and body instead, so replaying one of many recorded bodies for a URL finds its mapping
+	 * directly rather than comparing the body with every variant.
+	 */
+	private ConcurrentHashMap<RequestMethod, ConcurrentHashMap<String, SortedMappingArray>> mappingsByMethodAndUrl;
+	private ConcurrentHashMap<RequestMethod, ConcurrentHashMap<String, ConcurrentHashMap<String, SortedMappingArray>>> mappingsByMethodUrlAndBody;
+	private UrlPatternAutomatonIndex mappingsByUrlPattern;
+	private UrlPrefixTree mappingsByUrlPatternPrefix;
+	private volatile SortedMappingArray unindexedMappings;
 	
 	public SortedConcurrentMappingSet() {
 		insertionCount = new AtomicLong();
-		mappingSet = new ConcurrentSkipListSet<StubMapping>(sortedByPriorityThenReverseInsertionOrder());
+		mappingSet = emptySnapshot();
+		mappingsByMethodAndUrl = new ConcurrentHashMap<RequestMethod, ConcurrentHashMap<String, SortedMappingArray>>();
+		mappingsByMethodUrlAndBody = new ConcurrentHashMap<RequestMethod, ConcurrentHashMap<String, ConcurrentHashMap<String, SortedMappingArray>>>();
+		mappingsByUrlPattern = new UrlPatternAutomatonIndex(PRIORITY_THEN_REVERSE_INSERTION_ORDER);
+		mappingsByUrlPatternPrefix = new UrlPrefixTree(PRIORITY_THEN_REVERSE_INSERTION_ORDER);
+		unindexedMappings = emptySnapshot();
+	}
+
+	private static SortedMappingArray emptySnapshot() {
+		return SortedMappingArray.empty(PRIORITY_THEN_REVERSE_INSERTION_ORDER);
 	}
 	
-	private Comparator<StubMapping> sortedByPriorityThenReverseInsertionOrder() {
+	private static Comparator<StubMapping> sortedByPriorityThenReverseInsertionOrder() {
 		return new Comparator<StubMapping>() {
 			public int compare(StubMapping one, StubMapping two) {
 				int priorityComparison = one.comparePriorityWith(two);
@@ -47,14 +94,213 @@ public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
 	public Iterator<StubMapping> iterator() {
 		return mappingSet.iterator();
 	}
+
+	public int size() {
+		return mappingSet.size();
+	}
+
+	/**
+	 * @return the mappings that could possibly match the request, in the same priority then
+	 * reverse insertion order as iterator(). Mappings with an exact URL are only returned
+	 * when their method and URL agree with the request, and mappings with a URL pattern only
+	 * when the pattern matches or, if it couldn't be compiled into the automaton, when the
+	 * request URL starts with the pattern's literal prefix. Mappings keyed by their body as well are only
+	 * returned when the request body is the one they expect.
+	 */
+	public Iterable<StubMapping> candidatesFor(Request request) {
+		List<Iterable<StubMapping>> sources = mappingsByUrlPatternPrefix.mappingsPrefixing(request.getUrl());
+		List<StubMapping> urlPatternMatches = mappingsByUrlPattern.mappingsMatching(request.getUrl());
+		if (!urlPatternMatches.isEmpty()) {
+			sources.add(urlPatternMatches);
+		}
+		addIfPresent(sources, mappingsWithExactUrl(ANY, request.getUrl()));
+		if (request.getMethod() != ANY) {
+			addIfPresent(sources, mappingsWithExactUrl(request.getMethod(), request.getUrl()));
+		}
+		if (!mappingsByMethodUrlAndBody.isEmpty()) {
+			addIfPresent(sources, mappingsWithExactUrlAndBody(ANY, request));
+			if (request.getMethod() != ANY) {
+				addIfPresent(sources, mappingsWithExactUrlAndBody(request.getMethod(), request));
+			}
+		}
+
+		SortedMappingArray unindexed = unindexedMappings;
+		if (sources.isEmpty()) {
+			return unindexed;
+		}
+
+		sources.add(unindexed);
+		return Iterables.mergeSorted(sources, PRIORITY_THEN_REVERSE_INSERTION_ORDER);
+	}
+
+	private static void addIfPresent(List<Iterable<StubMapping>> sources, Iterable<StubMapping> mappings) {
+		if (mappings != null) {
+			sources.add(mappings);
+		}
+	}
+
+	private SortedMappingArray mappingsWithExactUrl(RequestMethod method, String url) {
+		ConcurrentHashMap<String, SortedMappingArray> mappingsByUrl = mappingsByMethodAndUrl.get(method);
+		if (mappingsByUrl == null || url == null) {
+			return null;
+		}
+
+		return mappingsByUrl.get(url);
+	}
+
+	private SortedMappingArray mappingsWithExactUrlAndBody(RequestMethod method, Request request) {
+		ConcurrentHashMap<String, SortedMappingArray> mappingsByBody = mappingsByBodyFor(method, request.getUrl());
+		if (mappingsByBody == null) {
+			return null;
+		}
+
+		// Only read the body once some mapping for this URL needs it
+		String body = request.getBodyAsString();
+		return body != null ? mappingsByBody.get(body) : null;
+	}
+
+	private ConcurrentHashMap<String, SortedMappingArray> mappingsByBodyFor(RequestMethod method, String url) {
+		ConcurrentHashMap<String, ConcurrentHashMap<String, SortedMappingArray>> mappingsByUrl = mappingsByMethodUrlAndBody.get(method);
+		if (mappingsByUrl == null || url == null) {
+			return null;
+		}
+
+		return mappingsByUrl.get(url);
+	}
+
+	/**
+	 * @return true if some candidates for requests with this method and URL depend on the request body, so
+	 * which mapping matches can't be known from anything else about the request
+	 */
+	public boolean candidatesDependOnBody(Request request) {
+		if (mappingsByMethodUrlAndBody.isEmpty()) {
+			return false;
+		}
+
+		return mappingsByBodyFor(ANY, request.getUrl()) != null
+				|| (request.getMethod() != ANY && mappingsByBodyFor(request.getMethod(), request.getUrl()) != null);
+	}
 	
 	public void add(StubMapping mapping) {
-		mapping.setInsertionIndex(insertionCount.getAndIncrement());
-		mappingSet.add(mapping);
+		addAll(Collections.singletonList(mapping));
+	}
+
+	/**
+	 * Adds the mappings in order, as if added one at a time, but copying and sorting each snapshot they
+	 * change only once
+	 */
+	public synchronized void addAll(List<StubMapping> mappings) {
+		for (StubMapping mapping: mappings) {
+			mapping.setInsertionIndex(insertionCount.getAndIncrement());
+		}
+		mappingSet = mappingSet.withAll(mappings);
+
+		Additions additions = new Additions();
+		for (StubMapping mapping: mappings) {
+			index(mapping, additions);
+		}
+		publish(additions);
+	}
+
+	/**
+	 * Mappings to add to each index, grouped so each snapshot is copied once however many mappings it gains
+	 */
+	private static class Additions {
+		final Map<RequestMethod, Map<String, List<StubMapping>>> byMethodAndUrl = newHashMap();
+		final Map<RequestMethod, Map<String, Map<String, List<StubMapping>>>> byMethodUrlAndBody = newHashMap();
+		final Map<String, List<StubMapping>> byUrlPatternPrefix = newHashMap();
+		final List<StubMapping> unindexed = newArrayList();
+
+		static <K, V> V getOrCreate(Map<K, V> map, K key, V empty) {
+			V value = map.get(key);
+			if (value == null) {
+				value = empty;
+				map.put(key, value);
+			}
+			return value;
+		}
+	}
+
+	private void index(StubMapping mapping, Additions additions) {
+		RequestPattern requestPattern = mapping.getRequest();
+		if (requestPattern.getUrl() == null) {
+			indexByUrlPattern(mapping, additions);
+			return;
+		}
+
+		RequestMethod method = requestPattern.getMethod() != null ? requestPattern.getMethod() : ANY;
+		String body = onlyBodyEqualTo(requestPattern);
+		if (body != null) {
+			Map<String, Map<String, List<StubMapping>>> byUrl =
+					Additions.getOrCreate(additions.byMethodUrlAndBody, method, new HashMap<String, Map<String, List<StubMapping>>>());
+			Map<String, List<StubMapping>> byBody = Additions.getOrCreate(byUrl, requestPattern.getUrl(), new HashMap<String, List<StubMapping>>());
+			Additions.getOrCreate(byBody, body, new ArrayList<StubMapping>()).add(mapping);
+			return;
+		}
+
+		Map<String, List<StubMapping>> byUrl = Additions.getOrCreate(additions.byMethodAndUrl, method, new HashMap<String, List<StubMapping>>());
+		Additions.getOrCreate(byUrl, requestPattern.getUrl(), new ArrayList<StubMapping>()).add(mapping);
+	}
+
+	private static String onlyBodyEqualTo(RequestPattern requestPattern) {
+		List<ValuePattern> bodyPatterns = requestPattern.getBodyPatterns();
+		if (bodyPatterns == null || bodyPatterns.size() != 1 || bodyPatterns.get(0) == null) {
+			return null;
+		}
+		return bodyPatterns.get(0).getEqualTo();
+	}
+
+	private void indexByUrlPattern(StubMapping mapping, Additions additions) {
+		if (mappingsByUrlPattern.add(mapping)) {
+			return;
+		}
+
+		String urlPattern = mapping.getRequest().getUrlPattern();
+		String prefix = urlPattern != null ? RegexLiterals.prefixOf(urlPattern) : "";
+		if (prefix.isEmpty()) {
+			additions.unindexed.add(mapping);
+		} else {
+			Additions.getOrCreate(additions.byUrlPatternPrefix, prefix, new ArrayList<StubMapping>()).add(mapping);
+		}
+	}
+
+	private void publish(Additions additions) {
+		for (Map.Entry<RequestMethod, Map<String, List<StubMapping>>> byUrl: additions.byMethodAndUrl.entrySet()) {
+			mappingsByMethodAndUrl.putIfAbsent(byUrl.getKey(), new ConcurrentHashMap<String, SortedMappingArray>());
+			addAllByKey(mappingsByMethodAndUrl.get(byUrl.getKey()), byUrl.getValue());
+		}
+
+		for (Map.Entry<RequestMethod, Map<String, Map<String, List<StubMapping>>>> byUrl: additions.byMethodUrlAndBody.entrySet()) {
+			mappingsByMethodUrlAndBody.putIfAbsent(byUrl.getKey(), new ConcurrentHashMap<String, ConcurrentHashMap<String, SortedMappingArray>>());
+			ConcurrentHashMap<String, ConcurrentHashMap<String, SortedMappingArray>> mappingsByUrl = mappingsByMethodUrlAndBody.get(byUrl.getKey());
+			for (Map.Entry<String, Map<String, List<StubMapping>>> byBody: byUrl.getValue().entrySet()) {
+				mappingsByUrl.putIfAbsent(byBody.getKey(), new ConcurrentHashMap<String, SortedMappingArray>());
+				addAllByKey(mappingsByUrl.get(byBody.getKey()), byBody.getValue());
+			}
+		}
+
+		if (!additions.byUrlPatternPrefix.isEmpty()) {
+			mappingsByUrlPatternPrefix.addAll(additions.byUrlPatternPrefix);
+		}
+		if (!additions.unindexed.isEmpty()) {
+			unindexedMappings = unindexedMappings.withAll(additions.unindexed);
+		}
+	}
+
+	private static void addAllByKey(ConcurrentHashMap<String, SortedMappingArray> index, Map<String, List<StubMapping>> added) {
+		for (Map.Entry<String, List<StubMapping>> entry: added.entrySet()) {
+			SortedMappingArray existing = index.get(entry.getKey());
+			index.put(entry.getKey(), (existing != null ? existing : emptySnapshot()).withAll(entry.getValue()));
+		}
 	}
 	
-	public void clear() {
-		mappingSet.clear();
+	public synchronized void clear() {
+		mappingSet = emptySnapshot();
+		mappingsByMethodAndUrl.clear();
+		mappingsByMethodUrlAndBody.clear();
+		mappingsByUrlPattern.clear();
+		mappingsByUrlPatternPrefix.clear();
+		unindexedMappings = emptySnapshot();
 	}
 	
 	@Override
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.google.common.collect.Iterators;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Immutable array of stub mappings kept in comparator order. Adding a mapping copies the array,
+ * so it suits sets that are read on every request but only written by admin operations.
+ */
+class SortedMappingArray implements Iterable<StubMapping> {
+
+    private final StubMapping[] mappings;
+    private final Comparator<StubMapping> comparator;
+
+    private SortedMappingArray(StubMapping[] mappings, Comparator<StubMapping> comparator) {
+        this.mappings = mappings;
+        this.comparator = comparator;
+    }
+
+    static SortedMappingArray empty(Comparator<StubMapping> comparator) {
+        return new SortedMappingArray(new StubMapping[0], comparator);
+    }
+
+    SortedMappingArray with(StubMapping mapping) {
+        int position = Arrays.binarySearch(mappings, mapping, comparator);
+        if (position < 0) {
+            position = -position - 1;
+        }
+
+        StubMapping[] newMappings = new StubMapping[mappings.length + 1];
+        System.arraycopy(mappings, 0, newMappings, 0, position);
+        newMappings[position] = mapping;
+        System.arraycopy(mappings, position, newMappings, position + 1, mappings.length - position);
+        return new SortedMappingArray(newMappings, comparator);
+    }
+
+    /**
+     * @return a copy with all the mappings added, sorting once however many there are
+     */
+    SortedMappingArray withAll(Collection<StubMapping> added) {
+        if (added.size() == 1) {
+            return with(added.iterator().next());
+        }
+
+        StubMapping[] newMappings = Arrays.copyOf(mappings, mappings.length + added.size());
+        int position = mappings.length;
+        for (StubMapping mapping: added) {
+            newMappings[position++] = mapping;
+        }
+        Arrays.sort(newMappings, comparator);
+        return new SortedMappingArray(newMappings, comparator);
+    }
+
+    int size() {
+        return mappings.length;
+    }
+
+    StubMapping get(int index) {
+        return mappings[index];
+    }
+
+    @Override
+    public Iterator<StubMapping> iterator() {
+        return Iterators.forArray(mappings);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(mappings);
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.CaseInsensitiveKey;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
+import com.github.tomakehurst.wiremock.matching.matchers.string.AhoCorasickAutomaton;
+import com.github.tomakehurst.wiremock.matching.matchers.string.CanonicalJson;
+import com.github.tomakehurst.wiremock.matching.matchers.string.PatternMatcher;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static java.util.Collections.emptyList;
+import static com.google.common.collect.Iterables.concat;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+
+/**
+ * Classifies requests against a fixed set of stub mappings in the manner of a packet classifier.
+ * For each dimension (method, presence of each header and each query parameter a mapping constrains)
+ * a bit set of the mappings that could match is precomputed, and a request's bit sets are ANDed
+ * together so that only the surviving mappings need their full request pattern evaluated.
+ *
+ * Header and query parameter keys that several mappings require to equal some value are also indexed by that
+ * value, so a request only keeps the mappings expecting the values it actually has.
+ *
+ * Mappings with a body equal to JSON in a non-extensible mode are also indexed by the canonical form of the
+ * expected document, which the request body must share for them to match. Mappings whose body must contain
+ * literals are indexed by those literals, which are all searched for in one pass over the request body.
+ */
+public class StubClassifier {
+
+    static final int MINIMUM_MAPPINGS_TO_INDEX_VALUES = 2;
+    private static final List<String> NO_VALUES = emptyList();
+
+    private final Map<StubMapping, Integer> positions = new IdentityHashMap<StubMapping, Integer>();
+    private final BitSet all = new BitSet();
+    private final EnumMap<RequestMethod, BitSet> acceptingMethod = new EnumMap<RequestMethod, BitSet>(RequestMethod.class);
+    private final Map<String, BitSet> requiringHeader = newHashMap();
+    private final Map<String, BitSet> requiringHeaderAbsent = newHashMap();
+    private final Map<String, BitSet> requiringParameter = newHashMap();
+    private final Map<String, BitSet> requiringParameterAbsent = newHashMap();
+    private final BitSet dependingOnParameters = new BitSet();
+    private final Map<String, String> referencedHeaderKeys = newHashMap();
+    private final Map<String, String> referencedParameterKeys = newHashMap();
+    private final Map<String, ValueIndex> headerValueIndexes = newHashMap();
+    private final Map<String, ValueIndex> parameterValueIndexes = newHashMap();
+    private final BitSet requiringJsonBody = new BitSet();
+    private final Map<String, BitSet> requiringCanonicalJsonBody = newHashMap();
+    private final BitSet requiringBodyLiterals = new BitSet();
+    private final List<String> bodyLiterals = newArrayList();
+    private final Map<String, Integer> bodyLiteralIndexes = newHashMap();
+    private final List<BitSet> requiringBodyLiteral = newArrayList();
+    private final BitSet dependingOnBody = new BitSet();
+    private final AhoCorasickAutomaton bodyLiteralAutomaton;
+
+    public StubClassifier(Iterable<StubMapping> mappings) {
+        for (RequestMethod method: RequestMethod.values()) {
+            acceptingMethod.put(method, new BitSet());
+        }
+
+        int position = 0;
+        for (StubMapping mapping: mappings) {
+            positions.put(mapping, position);
+            all.set(position);
+            classifyMethod(mapping.getRequest().getMethod(), position);
+            classifyKeys(mapping.getRequest().getHeaders(), requiringHeader, requiringHeaderAbsent, referencedHeaderKeys, headerValueIndexes, position);
+            classifyKeys(mapping.getRequest().getParameters(), requiringParameter, requiringParameterAbsent, referencedParameterKeys, parameterValueIndexes, position);
+            classifyBody(mapping.getRequest().getBodyPatterns(), position);
+            position++;
+        }
+
+        for (BitSet requiring: concat(requiringParameter.values(), requiringParameterAbsent.values())) {
+            dependingOnParameters.or(requiring);
+        }
+        removeRarelyUsed(headerValueIndexes);
+        removeRarelyUsed(parameterValueIndexes);
+        bodyLiteralAutomaton = new AhoCorasickAutomaton(bodyLiterals);
+        dependingOnBody.or(requiringJsonBody);
+        dependingOnBody.or(requiringBodyLiterals);
+    }
+
+    private void classifyMethod(RequestMethod method, int position) {
+        for (Map.Entry<RequestMethod, BitSet> entry: acceptingMethod.entrySet()) {
+            if (method == null || method == ANY || method == entry.getKey()) {
+                entry.getValue().set(position);
+            }
+        }
+    }
+
+    private static void classifyKeys(Map<String, ValuePattern> patterns,
+                                     Map<String, BitSet> requiringKey,
+                                     Map<String, BitSet> requiringKeyAbsent,
+                                     Map<String, String> referencedKeys,
+                                     Map<String, ValueIndex> valueIndexes,
+                                     int position) {
+        if (patterns == null) {
+            return;
+        }
+
+        for (Map.Entry<String, ValuePattern> entry: patterns.entrySet()) {
+            PatternMatcher matcher = entry.getValue() == null ? PatternMatcher.none() : entry.getValue().getMatcher();
+            if (matcher == null) {
+                continue;
+            }
+
+            Map<String, BitSet> requiring = matcher == PatternMatcher.none() ? requiringKeyAbsent : requiringKey;
+            String key = CaseInsensitiveKey.lowerCaseOf(entry.getKey());
+            if (!referencedKeys.containsKey(key)) {
+                referencedKeys.put(key, entry.getKey());
+            }
+            if (!requiring.containsKey(key)) {
+                requiring.put(key, new BitSet());
+            }
+            requiring.get(key).set(position);
+
+            String equalTo = entry.getValue() == null ? null : entry.getValue().getEqualTo();
+            if (equalTo != null) {
+                if (!valueIndexes.containsKey(key)) {
+                    valueIndexes.put(key, new ValueIndex(entry.getKey()));
+                }
+                valueIndexes.get(key).add(equalTo, position);
+            }
+        }
+    }
+
+    private static void removeRarelyUsed(Map<String, ValueIndex> valueIndexes) {
+        Iterator<ValueIndex> indexes = valueIndexes.values().iterator();
+        while (indexes.hasNext()) {
+            if (indexes.next().requiringEqualTo.cardinality() < MINIMUM_MAPPINGS_TO_INDEX_VALUES) {
+                indexes.remove();
+            }
+        }
+    }
+
+    private void classifyBody(List<ValuePattern> bodyPatterns, int position) {
+        if (bodyPatterns == null) {
+            return;
+        }
+
+        boolean indexedByJson = false;
+        for (ValuePattern bodyPattern: bodyPatterns) {
+            String canonicalForm = indexedByJson ? null : canonicalFormIfIndexable(bodyPattern);
+            if (canonicalForm != null) {
+                indexedByJson = true;
+                requiringJsonBody.set(position);
+                if (!requiringCanonicalJsonBody.containsKey(canonicalForm)) {
+                    requiringCanonicalJsonBody.put(canonicalForm, new BitSet());
+                }
+                requiringCanonicalJsonBody.get(canonicalForm).set(position);
+            }
+
+            if (bodyPattern != null && bodyPattern.getContains() != null) {
+                requiringBodyLiterals.set(position);
+                requiringBodyLiteral(bodyPattern.getContains()).set(position);
+            }
+        }
+    }
+
+    private BitSet requiringBodyLiteral(String literal) {
+        Integer index = bodyLiteralIndexes.get(literal);
+        if (index == null) {
+            index = bodyLiterals.size();
+            bodyLiterals.add(literal);
+            bodyLiteralIndexes.put(literal, index);
+            requiringBodyLiteral.add(new BitSet());
+        }
+        return requiringBodyLiteral.get(index);
+    }
+
+    private static String canonicalFormIfIndexable(ValuePattern bodyPattern) {
+        if (bodyPattern == null || bodyPattern.getEqualToJson() == null) {
+            return null;
+        }
+
+        // Extensible modes let the request body have fields the expected document doesn't
+        JSONCompareMode compareMode = bodyPattern.getJsonCompareMode();
+        if (compareMode != null && compareMode.isExtensible()) {
+            return null;
+        }
+        return CanonicalJson.canonicalFormOf(bodyPattern.getEqualToJson());
+    }
+
+    /**
+     * @return one spelling of each header key that some mapping constrains, ignoring case
+     */
+    public Collection<String> referencedHeaderKeys() {
+        return referencedHeaderKeys.values();
+    }
+
+    /**
+     * @return one spelling of each query parameter key that some mapping constrains, ignoring case
+     */
+    public Collection<String> referencedParameterKeys() {
+        return referencedParameterKeys.values();
+    }
+
+    public Classification classify(Request request) {
+        return classify(request, (BitSet) all.clone());
+    }
+
+    /**
+     * Classifies only the mappings among the request's URL candidates, so that parameters, which may be read
+     * from a form encoded body, are only read when some candidate constrains them
+     */
+    public Classification classify(Request request, Iterable<StubMapping> urlCandidates) {
+        BitSet candidates = new BitSet();
+        for (StubMapping mapping: urlCandidates) {
+            Integer position = positions.get(mapping);
+            if (position != null) {
+                candidates.set(position);
+            }
+        }
+        return classify(request, candidates);
+    }
+
+    private Classification classify(Request request, BitSet possibleMatches) {
+        possibleMatches.and(acceptingMethod.get(request.getMethod()));
+        if (!requiringHeader.isEmpty() || !requiringHeaderAbsent.isEmpty()) {
+            excludeByKeyPresence(possibleMatches, lowerCase(request.getAllHeaderKeys()), requiringHeader, requiringHeaderAbsent);
+        }
+        for (ValueIndex index: headerValueIndexes.values()) {
+            if (possibleMatches.intersects(index.requiringEqualTo)) {
+                HttpHeader header = request.header(index.key);
+                index.excludeUnlessExpecting(possibleMatches, header.isPresent() ? header.values() : NO_VALUES);
+            }
+        }
+
+        // Only read parameters if some mapping still in the running needs them, as doing so may consume a
+        // form encoded body
+        boolean dependsOnParameters = possibleMatches.intersects(dependingOnParameters);
+        if (dependsOnParameters) {
+            excludeByKeyPresence(possibleMatches, lowerCase(request.getParameters().keys()), requiringParameter, requiringParameterAbsent);
+            for (ValueIndex index: parameterValueIndexes.values()) {
+                if (possibleMatches.intersects(index.requiringEqualTo)) {
+                    HttpParameter parameter = request.parameter(index.key);
+                    index.excludeUnlessExpecting(possibleMatches, parameter.isPresent() ? parameter.values() : NO_VALUES);
+                }
+            }
+        }
+
+        // Only look at the body if some mapping still in the running needs it
+        boolean dependsOnBody = possibleMatches.intersects(dependingOnBody);
+        if (possibleMatches.intersects(requiringJsonBody)) {
+            excludeByCanonicalJsonBody(possibleMatches, request.getBodyAsString());
+        }
+        if (possibleMatches.intersects(requiringBodyLiterals)) {
+            excludeByBodyLiterals(possibleMatches, request.getBodyAsString());
+        }
+
+        return new Classification(possibleMatches, dependsOnBody, dependsOnParameters);
+    }
+
+    private void excludeByBodyLiterals(BitSet possibleMatches, String body) {
+        if (body == null) {
+            return;
+        }
+
+        BitSet occurring = bodyLiteralAutomaton.occurringIndexes(body);
+        for (int i = occurring.nextClearBit(0); i < bodyLiterals.size(); i = occurring.nextClearBit(i + 1)) {
+            possibleMatches.andNot(requiringBodyLiteral.get(i));
+        }
+    }
+
+    private void excludeByCanonicalJsonBody(BitSet possibleMatches, String body) {
+        BitSet excluded = (BitSet) requiringJsonBody.clone();
+        String canonicalForm = CanonicalJson.canonicalFormOfBody(body);
+        BitSet requiringThisBody = canonicalForm != null ? requiringCanonicalJsonBody.get(canonicalForm) : null;
+        if (requiringThisBody != null) {
+            excluded.andNot(requiringThisBody);
+        }
+        possibleMatches.andNot(excluded);
+    }
+
+    private static void excludeByKeyPresence(BitSet possibleMatches,
+                                             Set<String> presentKeys,
+                                             Map<String, BitSet> requiringKey,
+                                             Map<String, BitSet> requiringKeyAbsent) {
+        for (Map.Entry<String, BitSet> entry: requiringKey.entrySet()) {
+            if (!presentKeys.contains(entry.getKey())) {
+                possibleMatches.andNot(entry.getValue());
+            }
+        }
+
+        for (String key: presentKeys) {
+            BitSet requiringAbsent = requiringKeyAbsent.get(key);
+            if (requiringAbsent != null) {
+                possibleMatches.andNot(requiringAbsent);
+            }
+        }
+    }
+
+    private static Set<String> lowerCase(Set<String> keys) {
+        Set<String> lowerCaseKeys = newHashSet();
+        for (String key: keys) {
+            lowerCaseKeys.add(CaseInsensitiveKey.lowerCaseOf(key));
+        }
+        return lowerCaseKeys;
+    }
+
+    /**
+     * The mappings requiring a header or query parameter to equal some value, by that value
+     */
+    private static class ValueIndex {
+
+        private final String key;
+        private final BitSet requiringEqualTo = new BitSet();
+        private final Map<String, BitSet> requiringValue = newHashMap();
+
+        ValueIndex(String key) {
+            this.key = key;
+        }
+
+        void add(String value, int position) {
+            requiringEqualTo.set(position);
+            if (!requiringValue.containsKey(value)) {
+                requiringValue.put(value, new BitSet());
+            }
+            requiringValue.get(value).set(position);
+        }
+
+        /**
+         * A mapping matches if any of the values is the one it expects
+         */
+        void excludeUnlessExpecting(BitSet possibleMatches, List<String> values) {
+            BitSet excluded = (BitSet) requiringEqualTo.clone();
+            for (String value: values) {
+                BitSet requiringThisValue = requiringValue.get(value);
+                if (requiringThisValue != null) {
+                    excluded.andNot(requiringThisValue);
+                }
+            }
+            possibleMatches.andNot(excluded);
+        }
+    }
+
+    public class Classification {
+
+        private final BitSet possibleMatches;
+        private final boolean dependsOnBody;
+        private final boolean dependsOnParameters;
+
+        private Classification(BitSet possibleMatches, boolean dependsOnBody, boolean dependsOnParameters) {
+            this.possibleMatches = possibleMatches;
+            this.dependsOnBody = dependsOnBody;
+            this.dependsOnParameters = dependsOnParameters;
+        }
+
+        /**
+         * @return true if mappings were excluded or kept because of the request body
+         */
+        public boolean dependsOnBody() {
+            return dependsOnBody;
+        }
+
+        /**
+         * @return true if the request's parameters were read to exclude or keep mappings
+         */
+        public boolean dependsOnParameters() {
+            return dependsOnParameters;
+        }
+
+        /**
+         * @return false only if the mapping was classified and can't match the request. Mappings
+         * added since the classifier was built may always match.
+         */
+        public boolean mayMatch(StubMapping mapping) {
+            Integer position = positions.get(mapping);
+            return position == null || possibleMatches.get(position);
+        }
+    }
+}
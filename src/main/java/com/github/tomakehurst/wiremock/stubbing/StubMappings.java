@@ -25,6 +25,7 @@ public interface StubMappings {
 
 	ResponseDefinition serveFor(Request request);
 	void addMapping(StubMapping mapping);
+	void addMappings(List<StubMapping> mappings);
 	void reset();
 	void resetScenarios();
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.MatchedGroups;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Bounded cache of the stub mapping that won for a given request fingerprint. A fingerprint is the method, URL
+ * and the values of every header and parameter some stub mapping constrains, which is everything a match can
+ * depend on except the body and scenario state, so callers must not cache results that depended on either.
+ *
+ * Reading parameters may consume a form encoded body, so they are left out of the fingerprint unless some
+ * candidate for the request's URL constrains them. Requests whose candidates do are cached under the full
+ * fingerprint, with a marker under the one without parameters saying so.
+ *
+ * Entries are tagged with the version of the mapping set they were found in. Bumping the version when mappings
+ * change makes every earlier entry stale, including ones still being computed at the time.
+ */
+class StubMatchCache {
+
+    static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private final Cache<List<Object>, CachedMatch> cache;
+    private final AtomicLong version = new AtomicLong();
+
+    StubMatchCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    StubMatchCache(int maximumSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    long version() {
+        return version.get();
+    }
+
+    void invalidate() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    List<Object> fingerprintOf(Request request, StubClassifier classifier, boolean withParameters) {
+        List<Object> fingerprint = newArrayList();
+        fingerprint.add(request.getMethod());
+        fingerprint.add(request.getUrl());
+        for (String key: classifier.referencedHeaderKeys()) {
+            HttpHeader header = request.header(key);
+            fingerprint.add(header.isPresent() ? header.values() : null);
+        }
+        if (withParameters) {
+            for (String key: classifier.referencedParameterKeys()) {
+                HttpParameter parameter = request.parameter(key);
+                fingerprint.add(parameter.isPresent() ? parameter.values() : null);
+            }
+        }
+        return fingerprint;
+    }
+
+    CachedMatch get(List<Object> fingerprint, long expectedVersion) {
+        CachedMatch match = cache.getIfPresent(fingerprint);
+        return match != null && match.version == expectedVersion ? match : null;
+    }
+
+    void put(List<Object> fingerprint, long foundInVersion, StubMapping mapping, MatchedGroups groups) {
+        if (foundInVersion == version.get()) {
+            cache.put(fingerprint, new CachedMatch(foundInVersion, mapping, groups));
+        }
+    }
+
+    /**
+     * Marks requests with this fingerprint, taken without parameters, as needing their parameters in it too
+     */
+    void putDependingOnParameters(List<Object> fingerprint, long foundInVersion) {
+        put(fingerprint, foundInVersion, null, null);
+    }
+
+    static class CachedMatch {
+
+        private final long version;
+        private final StubMapping mapping;
+        private final MatchedGroups groups;
+
+        private CachedMatch(long version, StubMapping mapping, MatchedGroups groups) {
+            this.version = version;
+            this.mapping = mapping;
+            this.groups = groups;
+        }
+
+        StubMapping getMapping() {
+            return mapping;
+        }
+
+        MatchedGroups getGroups() {
+            return groups;
+        }
+
+        boolean dependsOnParameters() {
+            return mapping == null;
+        }
+    }
+}
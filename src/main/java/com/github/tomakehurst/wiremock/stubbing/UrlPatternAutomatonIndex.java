@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.matching.matchers.string.CombinedRegexAutomaton;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Stub mappings whose URL patterns are compiled together into a single automaton, so the URL is
+ * tested against all of them in one pass rather than one regex at a time. The automaton is
+ * recompiled on the first lookup after the set of mappings changes.
+ */
+class UrlPatternAutomatonIndex {
+
+    private final Comparator<StubMapping> comparator;
+    private final List<StubMapping> mappings = newArrayList();
+    private volatile CompiledMappings compiledMappings;
+
+    UrlPatternAutomatonIndex(Comparator<StubMapping> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return false if the mapping's URL pattern can't be evaluated by the automaton, in which
+     * case the mapping is not added
+     */
+    public synchronized boolean add(StubMapping mapping) {
+        String urlPattern = mapping.getRequest().getUrlPattern();
+        if (urlPattern == null || !CombinedRegexAutomaton.isSupported(urlPattern)) {
+            return false;
+        }
+
+        mappings.add(mapping);
+        compiledMappings = null;
+        return true;
+    }
+
+    public synchronized void clear() {
+        mappings.clear();
+        compiledMappings = null;
+    }
+
+    /**
+     * @return the mappings whose URL pattern matches the URL, in comparator order
+     */
+    public List<StubMapping> mappingsMatching(String url) {
+        CompiledMappings compiled = compiled();
+        if (compiled.sortedMappings.isEmpty()) {
+            return compiled.sortedMappings;
+        }
+
+        int[] indexes = compiled.automaton.matchingIndexes(url);
+        if (indexes == null) {
+            return compiled.sortedMappings;
+        }
+
+        List<StubMapping> matching = newArrayList();
+        for (int index: indexes) {
+            matching.add(compiled.sortedMappings.get(index));
+        }
+        return matching;
+    }
+
+    private CompiledMappings compiled() {
+        CompiledMappings compiled = compiledMappings;
+        if (compiled == null) {
+            synchronized (this) {
+                if (compiledMappings == null) {
+                    compiledMappings = compile();
+                }
+                compiled = compiledMappings;
+            }
+        }
+
+        return compiled;
+    }
+
+    private CompiledMappings compile() {
+        List<StubMapping> sortedMappings = newArrayList(mappings);
+        Collections.sort(sortedMappings, comparator);
+
+        List<String> urlPatterns = newArrayList();
+        for (StubMapping mapping: sortedMappings) {
+            urlPatterns.add(mapping.getRequest().getUrlPattern());
+        }
+
+        return new CompiledMappings(sortedMappings, new CombinedRegexAutomaton(urlPatterns));
+    }
+
+    private static class CompiledMappings {
+
+        final List<StubMapping> sortedMappings;
+        final CombinedRegexAutomaton automaton;
+
+        CompiledMappings(List<StubMapping> sortedMappings, CombinedRegexAutomaton automaton) {
+            this.sortedMappings = sortedMappings;
+            this.automaton = automaton;
+        }
+    }
+}
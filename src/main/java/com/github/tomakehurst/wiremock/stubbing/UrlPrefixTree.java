@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+
+/**
+ * Radix tree of stub mappings keyed by the literal prefix of their URL pattern, so that only
+ * mappings whose prefix the request URL starts with need their regex evaluated.
+ *
+ * Nodes are never changed once published. Adding copies the nodes on the path to each prefix and
+ * publishes the new root through a volatile reference, so request threads walk the tree without
+ * locking, as with the other indexes in {@link SortedConcurrentMappingSet}.
+ */
+class UrlPrefixTree {
+
+    private final Comparator<StubMapping> comparator;
+    private volatile Node root = new Node("", Collections.<Character, Node>emptyMap(), null);
+
+    UrlPrefixTree(Comparator<StubMapping> comparator) {
+        this.comparator = comparator;
+    }
+
+    public void add(String prefix, StubMapping mapping) {
+        addAll(singletonMap(prefix, (Collection<StubMapping>) singletonList(mapping)));
+    }
+
+    /**
+     * Adds mappings grouped by prefix, sorting the mappings for each prefix once
+     */
+    public synchronized void addAll(Map<String, ? extends Collection<StubMapping>> mappingsByPrefix) {
+        Node newRoot = root;
+        for (Map.Entry<String, ? extends Collection<StubMapping>> entry: mappingsByPrefix.entrySet()) {
+            newRoot = withMappings(newRoot, entry.getKey(), 0, entry.getValue());
+        }
+        root = newRoot;
+    }
+
+    /**
+     * @return the sorted sets of mappings whose prefix the URL starts with, shortest prefix first
+     */
+    public List<Iterable<StubMapping>> mappingsPrefixing(String url) {
+        List<Iterable<StubMapping>> found = newArrayList();
+        Node node = root;
+        int position = 0;
+        while (node != null) {
+            if (node.mappings != null) {
+                found.add(node.mappings);
+            }
+
+            node = position < url.length() ? node.children.get(url.charAt(position)) : null;
+            if (node != null && url.startsWith(node.label, position)) {
+                position += node.label.length();
+            } else {
+                node = null;
+            }
+        }
+
+        return found;
+    }
+
+    public synchronized void clear() {
+        root = new Node("", Collections.<Character, Node>emptyMap(), null);
+    }
+
+    /**
+     * @return a copy of node with the mappings added at the given prefix, which is matched from position
+     */
+    private Node withMappings(Node node, String prefix, int position, Collection<StubMapping> added) {
+        if (position == prefix.length()) {
+            SortedMappingArray mappings = node.mappings != null ? node.mappings : SortedMappingArray.empty(comparator);
+            return new Node(node.label, node.children, mappings.withAll(added));
+        }
+
+        Node child = node.children.get(prefix.charAt(position));
+        if (child == null) {
+            Node leaf = new Node(prefix.substring(position), Collections.<Character, Node>emptyMap(),
+                    SortedMappingArray.empty(comparator).withAll(added));
+            return node.withChild(leaf);
+        }
+
+        int common = commonPrefixLength(child.label, prefix, position);
+        if (common < child.label.length()) {
+            // Split the child under an intermediate node holding the shared part of its label
+            Node lower = new Node(child.label.substring(common), child.children, child.mappings);
+            child = new Node(child.label.substring(0, common), Collections.singletonMap(lower.firstChar(), lower), null);
+        }
+
+        return node.withChild(withMappings(child, prefix, position + common, added));
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = 0;
+        while (length < label.length()
+                && offset + length < key.length()
+                && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+
+        return length;
+    }
+
+    private static class Node {
+
+        final String label;
+        final Map<Character, Node> children;
+        final SortedMappingArray mappings;
+
+        Node(String label, Map<Character, Node> children, SortedMappingArray mappings) {
+            this.label = label;
+            this.children = children;
+            this.mappings = mappings;
+        }
+
+        char firstChar() {
+            return label.charAt(0);
+        }
+
+        Node withChild(Node child) {
+            Map<Character, Node> newChildren = newHashMap(children);
+            newChildren.put(child.firstChar(), child);
+            return new Node(label, newChildren, mappings);
+        }
+    }
+}
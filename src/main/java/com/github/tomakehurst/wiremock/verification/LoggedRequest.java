@@ -19,12 +19,20 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
 import com.github.tomakehurst.wiremock.http.*;
 
+import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Set;
 
+import static com.google.common.base.Charsets.ISO_8859_1;
+import static javax.xml.bind.DatatypeConverter.parseBase64Binary;
+import static javax.xml.bind.DatatypeConverter.printBase64Binary;
+
 @JsonIgnoreProperties(ignoreUnknown=true)
 public class LoggedRequest implements Request {
 
@@ -35,7 +43,8 @@ public class LoggedRequest implements Request {
 	private final RequestMethod method;
 	private final HttpHeaders headers;
     private final HttpParameters parameters;
-	private final String body;
+	private final byte[] body;
+	private volatile String bodyAsString;
 	private final boolean isBrowserProxyRequest;
     private final Date loggedDate;
 	
@@ -44,25 +53,42 @@ public class LoggedRequest implements Request {
                 request.getAbsoluteUrl(),
                 request.getMethod(),
                 HttpHeaders.copyOf(request.getHeaders()),
+                request.getBody(),
                 request.getBodyAsString(),
                 HttpParameters.copyOf(request.getParameters()),
                 request.isBrowserProxyRequest(),
                 new Date());
 	}
 
+    public LoggedRequest(String url,
+                         String absoluteUrl,
+                         RequestMethod method,
+                         HttpHeaders headers,
+                         String body,
+                         boolean isBrowserProxyRequest,
+                         Date loggedDate) {
+        this(url, absoluteUrl, method, headers, body, null, isBrowserProxyRequest, loggedDate);
+    }
+
+    /**
+     * The body is taken from bodyAsBase64 when present, so binary bodies survive a round trip through JSON.
+     * Otherwise it is encoded from the body string.
+     */
     @JsonCreator
     public LoggedRequest(@JsonProperty("url") String url,
                          @JsonProperty("absoluteUrl") String absoluteUrl,
                          @JsonProperty("method") RequestMethod method,
                          @JsonProperty("headers") HttpHeaders headers,
                          @JsonProperty("body") String body,
+                         @JsonProperty("bodyAsBase64") String bodyAsBase64,
                          @JsonProperty("browserProxyRequest") boolean isBrowserProxyRequest,
                          @JsonProperty("loggedDate") Date loggedDate) {
         this(url,
                 absoluteUrl,
                 method,
                 headers,
-                body,
+                bodyAsBase64 != null ? parseBase64Binary(bodyAsBase64) : encode(body, headers),
+                bodyAsBase64 != null ? null : body,
                 HttpParameters.noParameters(),
                 isBrowserProxyRequest,
                 loggedDate);
@@ -72,7 +98,8 @@ public class LoggedRequest implements Request {
                          String absoluteUrl,
                          RequestMethod method,
                          HttpHeaders headers,
-                         String body,
+                         byte[] body,
+                         String bodyAsString,
                          HttpParameters parameters,
                          boolean isBrowserProxyRequest,
                          Date loggedDate) {
@@ -80,6 +107,7 @@ public class LoggedRequest implements Request {
         this.absoluteUrl = absoluteUrl;
         this.method = method;
         this.body = body;
+        this.bodyAsString = bodyAsString;
         this.headers = headers;
         this.parameters = parameters;
         this.isBrowserProxyRequest = isBrowserProxyRequest;
@@ -130,9 +158,40 @@ public class LoggedRequest implements Request {
 	@Override
     @JsonProperty("body")
 	public String getBodyAsString() {
+		String decoded = bodyAsString;
+		if (decoded == null && body != null) {
+			decoded = new String(body, charsetOf(headers));
+			bodyAsString = decoded;
+		}
+		return decoded;
+	}
+
+	@Override
+	@JsonIgnore
+	public byte[] getBody() {
 		return body;
 	}
 
+	/**
+	 * @return the body encoded as base64, or null when the body string already holds it exactly
+	 */
+	@JsonProperty("bodyAsBase64")
+	@JsonSerialize(include = Inclusion.NON_NULL)
+	public String getBodyAsBase64() {
+		if (body == null || Arrays.equals(encode(getBodyAsString(), headers), body)) {
+			return null;
+		}
+		return printBase64Binary(body);
+	}
+
+	private static byte[] encode(String body, HttpHeaders headers) {
+		return body != null ? body.getBytes(charsetOf(headers)) : null;
+	}
+
+	private static Charset charsetOf(HttpHeaders headers) {
+		return headers != null ? headers.getContentTypeHeader().charsetOr(ISO_8859_1) : ISO_8859_1;
+	}
+
 	@Override
     @JsonIgnore
 	public Set<String> getAllHeaderKeys() {
@@ -46,7 +46,7 @@ public class UnboundedInMemoryRequestJournal implements ImmutableCapacityJournal
     private Predicate<Request> matchedBy(final RequestPattern requestPattern) {
         return new Predicate<Request>() {
             public boolean apply(Request input) {
-                return requestPattern.isMatchedBy(input).isMatched();
+                return requestPattern.test(input);
             }
         };
     }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock;
+
+import com.github.tomakehurst.wiremock.client.HttpAdminClient;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import com.google.common.base.Strings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RegexBudgetAcceptanceTest {
+
+    private static final String BACKTRACKING_REGEX = ".*a.*a.*a.*b";
+    private static final String BACKTRACKING_VALUE = Strings.repeat("a", 500) + "bc";
+
+    private WireMockServer budgetedServer;
+    private WireMockServer unbudgetedServer;
+
+    @Before
+    public void init() {
+        budgetedServer = new WireMockServer(new WireMockConfiguration().port(0).regexStepBudget(100000));
+        budgetedServer.start();
+        unbudgetedServer = new WireMockServer(new WireMockConfiguration().port(0));
+        unbudgetedServer.start();
+    }
+
+    @After
+    public void stopServers() {
+        budgetedServer.stop();
+        unbudgetedServer.stop();
+    }
+
+    @Test
+    public void keepsEachServersBudgetAndOverrunsToItself() {
+        new WireMock("localhost", budgetedServer.port()).register(post(urlEqualTo("/orders"))
+                .withRequestBody(matching(BACKTRACKING_REGEX))
+                .willReturn(aResponse().withStatus(201)));
+
+        WireMockTestClient testClient = new WireMockTestClient(budgetedServer.port());
+        assertThat(testClient.postWithBody("/orders", BACKTRACKING_VALUE, "text/plain", "utf-8").statusCode(), is(404));
+
+        assertThat(overrunsOf(budgetedServer), is(1L));
+        assertThat(overrunsOf(unbudgetedServer), is(0L));
+    }
+
+    private static long overrunsOf(WireMockServer server) {
+        return new HttpAdminClient("localhost", server.port()).findRegexBudgetOverruns().getOverruns();
+    }
+}
@@ -22,6 +22,7 @@ import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
 import org.apache.http.MalformedChunkCodingException;
 import org.apache.http.NoHttpResponseException;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.entity.ByteArrayEntity;
 import org.junit.Test;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
@@ -147,6 +148,19 @@ public class StubbingAcceptanceTest extends AcceptanceTestBase {
         assertThat(response.statusCode(), is(204));
     }
 
+    @Test
+    public void matchesFormPostBodyWhenAnotherStubConstrainsParameters() {
+        stubFor(post(urlEqualTo("/form"))
+                .withRequestBody(containing("foo=bar"))
+                .willReturn(aResponse().withStatus(200)));
+        stubFor(get(urlEqualTo("/other?a=1"))
+                .withParameter("a", equalTo("1"))
+                .willReturn(aResponse().withStatus(200)));
+
+        assertThat(testClient.postWithBody("/form", "foo=bar", "application/x-www-form-urlencoded",
+                "utf-8").statusCode(), is(200));
+    }
+
     @Test
     public void doesNotMatchOnAbsentParameter() {
         stubFor(post(urlMatching("/some/url.*"))
@@ -183,6 +197,22 @@ public class StubbingAcceptanceTest extends AcceptanceTestBase {
 		assertThat(response.content(), is("Some example test from a file"));
 	}
 	
+    @Test
+    public void matchesBinaryRequestBodies() {
+        byte[] body = new byte[] { 0x0A, 0x03, (byte) 0xFF, (byte) 0xC3, 0x28, 0x00, 0x7F };
+        stubFor(post(urlEqualTo("/binary/body"))
+                .withRequestBody(binaryEqualTo(body))
+                .willReturn(aResponse().withStatus(HTTP_OK)));
+        stubFor(post(urlEqualTo("/binary/body/part"))
+                .withRequestBody(binaryContaining(new byte[] { (byte) 0xFF, (byte) 0xC3 }))
+                .willReturn(aResponse().withStatus(HTTP_OK)));
+
+        assertThat(testClient.post("/binary/body", new ByteArrayEntity(body)).statusCode(), is(HTTP_OK));
+        assertThat(testClient.post("/binary/body", new ByteArrayEntity(new byte[] { 0x0A, 0x03 })).statusCode(), is(HTTP_NOT_FOUND));
+        assertThat(testClient.post("/binary/body/part", new ByteArrayEntity(body)).statusCode(), is(HTTP_OK));
+        assertThat(testClient.post("/binary/body/part", new ByteArrayEntity(new byte[] { (byte) 0xC3, (byte) 0xFF })).statusCode(), is(HTTP_NOT_FOUND));
+    }
+
 	@Test
 	public void matchingOnRequestBodyWithTwoRegexes() {
 		stubFor(put(urlEqualTo("/match/this/body"))
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CaseInsensitiveKeyTest {
+
+    @Test
+    public void returnsTheSameLowerCaseInstanceForWellKnownHeaderNames() {
+        String lowerCaseName = CaseInsensitiveKey.lowerCaseOf("Content-Type");
+
+        assertThat(lowerCaseName, is("content-type"));
+        assertThat(CaseInsensitiveKey.lowerCaseOf("content-type"), sameInstance(lowerCaseName));
+        assertThat(CaseInsensitiveKey.lowerCaseOf("Content-Type"), sameInstance(lowerCaseName));
+    }
+
+    @Test
+    public void lowerCasesOtherNames() {
+        assertThat(CaseInsensitiveKey.lowerCaseOf("X-My-Header"), is("x-my-header"));
+        assertThat(CaseInsensitiveKey.lowerCaseOf("CONTENT-TYPE"), is("content-type"));
+    }
+
+    @Test
+    public void keysDifferingOnlyInCaseAreEqual() {
+        assertThat(new CaseInsensitiveKey("X-My-Header"), is(new CaseInsensitiveKey("x-my-HEADER")));
+        assertThat(new CaseInsensitiveKey("X-My-Header").hashCode(), is(new CaseInsensitiveKey("x-my-HEADER").hashCode()));
+        assertThat(new CaseInsensitiveKey("X-My-Header"), not(new CaseInsensitiveKey("X-Other-Header")));
+    }
+
+    @Test
+    public void keepsTheOriginalKey() {
+        assertThat(new CaseInsensitiveKey("Content-Type").key(), is("Content-Type"));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.common.LocalNotifier;
+import com.github.tomakehurst.wiremock.common.Log4jNotifier;
+import com.github.tomakehurst.wiremock.common.Notifier;
+import com.github.tomakehurst.wiremock.http.Request;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.WriterAppender;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.HEADER;
+import static com.github.tomakehurst.wiremock.matching.Mismatch.Subject.METHOD;
+import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+@RunWith(JMock.class)
+public class MismatchesTest {
+
+    private Mockery context;
+
+    @Before
+    public void init() {
+        context = new Mockery();
+    }
+
+    @After
+    public void cleanUp() {
+        LocalNotifier.set(null);
+        Mismatches.stopRecording();
+    }
+
+    @Test
+    public void recordsStructuredMismatchesWhileRecording() {
+        RequestPattern requestPattern = new RequestPattern(POST, "/for/recording");
+        requestPattern.addHeader("Content-Type", ValuePattern.equalTo("text/xml"));
+        Request request = aRequest(context)
+                .withUrl("/for/recording")
+                .withMethod(POST)
+                .withHeader("Content-Type", "text/plain")
+                .build();
+
+        Mismatches.startRecording();
+        requestPattern.isMatchedBy(request);
+        List<Mismatch> mismatches = Mismatches.stopRecording();
+
+        assertThat(mismatches.size(), is(1));
+        assertThat(mismatches.get(0).getSubject(), is(HEADER));
+        assertThat(mismatches.get(0).getKey(), is("Content-Type"));
+        assertThat(mismatches.get(0).render(),
+                is("Header Content-Type does not match. For a match, value should equal text/xml"));
+    }
+
+    @Test
+    public void recordsBinaryBodyAsBytesAndEncodesItOnlyWhenRendered() {
+        byte[] body = new byte[] { 0x01, 0x02, 0x03 };
+        RequestPattern requestPattern = new RequestPattern(POST, "/binary");
+        requestPattern.setBodyPatterns(asList(ValuePattern.binaryEqualTo(new byte[] { 0x04 })));
+        Request request = aRequest(context)
+                .withUrl("/binary")
+                .withMethod(POST)
+                .withBody(body)
+                .build();
+
+        Mismatches.startRecording();
+        requestPattern.isMatchedBy(request);
+        List<Mismatch> mismatches = Mismatches.stopRecording();
+
+        assertThat(mismatches.size(), is(1));
+        assertThat(mismatches.get(0).getActual(), sameInstance((Object) body));
+        assertThat(mismatches.get(0).render(), is("Body does not match: AQID"));
+    }
+
+    @Test
+    public void recordsNothingOutsideRecording() {
+        Mismatches.mismatch(METHOD, null, POST, GET);
+
+        assertThat(Mismatches.stopRecording().isEmpty(), is(true));
+    }
+
+    @Test
+    public void notifiesRenderedMismatchWhenNotifierIsSet() {
+        final Notifier notifier = context.mock(Notifier.class);
+        LocalNotifier.set(notifier);
+        context.checking(new Expectations() {{
+            one(notifier).info("Method GET does not match");
+        }});
+
+        Mismatches.mismatch(METHOD, null, POST, GET);
+    }
+
+    @Test
+    public void doesNotRenderExpectedValueWhenNothingIsListening() {
+        Object expected = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("Mismatch should not have been rendered");
+            }
+        };
+
+        Mismatches.mismatch(HEADER, "Accept", expected, null);
+    }
+
+    @Test
+    public void doesNotRenderMismatchesWhenLog4jWouldDiscardInfoMessages() {
+        Logger logger = Logger.getLogger(Log4jNotifier.class);
+        WriterAppender appender = new WriterAppender(new SimpleLayout(), new StringWriter());
+        appender.setThreshold(Level.ERROR);
+        logger.setAdditivity(false);
+        logger.addAppender(appender);
+        try {
+            Log4jNotifier notifier = new Log4jNotifier();
+            LocalNotifier.set(notifier);
+            assertThat(notifier.isInfoEnabled(), is(false));
+
+            doesNotRenderExpectedValueWhenNothingIsListening();
+
+            appender.setThreshold(Level.INFO);
+            logger.removeAppender(appender);
+            logger.addAppender(appender);
+            assertThat(notifier.isInfoEnabled(), is(true));
+        } finally {
+            logger.setAdditivity(true);
+            logger.removeAppender(appender);
+        }
+    }
+}
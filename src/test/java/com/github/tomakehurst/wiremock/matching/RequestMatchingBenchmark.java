@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching;
+
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.containing;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.equalTo;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.matches;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+
+/**
+ * Compares interpreted and compiled request pattern matching over a few hundred typical stubs.
+ * Run the main method directly; it isn't part of the test suite.
+ */
+public class RequestMatchingBenchmark {
+
+    private static final int STUBS = 500;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    public static void main(String... args) {
+        List<RequestPattern> interpreted = stubPatterns();
+        List<RequestPattern> compiled = stubPatterns();
+        for (RequestPattern pattern: compiled) {
+            pattern.compileMatcher();
+        }
+
+        List<Request> requests = requests();
+        for (int i = 0; i < 3; i++) {
+            report("interpreted", interpreted, requests);
+            report("compiled", compiled, requests);
+        }
+    }
+
+    private static void report(String name, List<RequestPattern> patterns, List<Request> requests) {
+        run(patterns, requests, WARMUP_ROUNDS);
+        long start = System.nanoTime();
+        int matches = run(patterns, requests, MEASURED_ROUNDS);
+        long elapsed = System.nanoTime() - start;
+        long evaluations = (long) MEASURED_ROUNDS * patterns.size() * requests.size();
+        System.out.println(String.format("%-12s %6.1f ns per pattern evaluation (%d matches)",
+                name, (double) elapsed / evaluations, matches));
+    }
+
+    private static int run(List<RequestPattern> patterns, List<Request> requests, int rounds) {
+        int matches = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (Request request: requests) {
+                for (RequestPattern pattern: patterns) {
+                    if (pattern.test(request)) {
+                        matches++;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static List<RequestPattern> stubPatterns() {
+        List<RequestPattern> patterns = newArrayList();
+        for (int i = 0; i < STUBS; i++) {
+            switch (i % 4) {
+                case 0:
+                    patterns.add(new RequestPattern(GET, "/api/resource/" + i));
+                    break;
+                case 1:
+                    RequestPattern withHeader = new RequestPattern(GET, "/api/resource/" + i);
+                    withHeader.addHeader("Accept", equalTo("application/json"));
+                    patterns.add(withHeader);
+                    break;
+                case 2:
+                    RequestPattern withUrlPattern = new RequestPattern(GET);
+                    withUrlPattern.setUrlPattern("/api/resource/" + i + "/items/([0-9]+)");
+                    patterns.add(withUrlPattern);
+                    break;
+                default:
+                    RequestPattern withBody = new RequestPattern(POST, "/api/resource/" + i);
+                    withBody.setBodyPatterns(asList(containing("\"id\":" + i), matches(".*\"type\":\"(\\w+)\".*")));
+                    patterns.add(withBody);
+            }
+        }
+        return patterns;
+    }
+
+    private static List<Request> requests() {
+        HttpHeaders headers = new HttpHeaders(new HttpHeader("Accept", "application/json"));
+        return asList(
+                request(GET, "/api/resource/101", headers, ""),
+                request(GET, "/api/resource/102/items/7", headers, ""),
+                request(POST, "/api/resource/103", headers, "{\"id\":103,\"type\":\"order\"}"),
+                request(GET, "/api/unknown", headers, ""));
+    }
+
+    private static Request request(RequestMethod method, String url, HttpHeaders headers, String body) {
+        return new LoggedRequest(url, "http://localhost:8080" + url, method, headers, body, false, new Date());
+    }
+}
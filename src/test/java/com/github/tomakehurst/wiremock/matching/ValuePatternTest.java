@@ -71,6 +71,32 @@ public class ValuePatternTest {
         assertEquals(MatchedGroups.noGroups(), valuePattern.isMatchFor("other-value").getGroups());
     }
 
+    @Test
+    public void matchesOnBinaryEqualToAgainstUtf8EncodingOfValue() {
+        valuePattern.setBinaryEqualTo("w6k=");
+        assertTrue(valuePattern.isMatchFor("\u00e9").isMatched());
+        assertFalse(valuePattern.isMatchFor("e").isMatched());
+    }
+
+    @Test
+    public void matchesOnBinaryContains() {
+        valuePattern = ValuePattern.binaryContaining(new byte[] { 'b', 'c' });
+        assertTrue(valuePattern.isMatchFor("abcd").isMatched());
+        assertFalse(valuePattern.isMatchFor("acbd").isMatched());
+    }
+
+    @Test
+    public void matchesOnRegexWithHexEscape() {
+        valuePattern.setMatches("\\x41BC");
+        assertTrue(valuePattern.isMatchFor("ABC").isMatched());
+    }
+
+    @Test
+    public void doesNotMatchOnNegativeRegexWithHexEscape() {
+        valuePattern.setDoesNotMatch("\\x41BC");
+        assertFalse(valuePattern.isMatchFor("ABC").isMatched());
+    }
+
     @Test
     public void matchesOnRegexWithMatchingValue() {
         valuePattern.setMatches("[0-9]{6}");
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.request;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.MatchedGroups;
+import com.github.tomakehurst.wiremock.matching.PatternMatch;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.absent;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.containing;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.equalTo;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.equalToJson;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.matches;
+import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CompiledRequestMatcherTest {
+
+    private Mockery context;
+
+    @Before
+    public void init() {
+        context = new Mockery();
+    }
+
+    @Test
+    public void matchesExactlyAsInterpretedMatchersDo() {
+        List<Request> requests = asList(
+                aRequest(context, "getOrder").withMethod(GET).withUrl("/orders/123")
+                        .withHeader("Accept", "application/json").build(),
+                aRequest(context, "getOrderAsXml").withMethod(GET).withUrl("/orders/123")
+                        .withHeader("Accept", "text/xml").withHeader("X-Debug", "true").build(),
+                aRequest(context, "postOrder").withMethod(POST).withUrl("/orders")
+                        .withHeader("Content-Type", "application/json").withBody("{ \"id\": 123, \"item\": \"book\" }").build(),
+                aRequest(context, "searchOrders").withMethod(GET).withUrl("/orders?status=open")
+                        .withParameter("status", "open").build());
+
+        for (RequestPattern pattern: patterns()) {
+            RequestPattern compiledPattern = copyOf(pattern);
+            compiledPattern.compileMatcher();
+            for (Request request: requests) {
+                PatternMatch expected = pattern.isMatchedBy(request);
+                PatternMatch actual = compiledPattern.isMatchedBy(request);
+                assertThat(pattern + " matching " + request.getUrl(), actual, is(expected));
+                assertThat(pattern + " testing " + request.getUrl(), pattern.test(request), is(expected.isMatched()));
+                assertThat(pattern + " testing " + request.getUrl(), compiledPattern.test(request), is(expected.isMatched()));
+            }
+        }
+    }
+
+    @Test
+    public void matchesUrlPatternsWithEscapesThatTakeAnArgument() {
+        RequestPattern pattern = new RequestPattern(GET);
+        pattern.setUrlPattern("/orders/\\x41BC");
+        pattern.compileMatcher();
+
+        assertThat(pattern.test(aRequest(context).withMethod(GET).withUrl("/orders/ABC").build()), is(true));
+    }
+
+    @Test
+    public void capturesUrlGroupsBeforeBodyGroups() {
+        RequestPattern pattern = new RequestPattern(POST);
+        pattern.setUrlPattern("/orders/(.*)");
+        pattern.setBodyPatterns(asList(matches(".*\"item\": \"(\\w+)\".*")));
+        pattern.compileMatcher();
+
+        Request request = aRequest(context).withMethod(POST).withUrl("/orders/123")
+                .withBody("{ \"item\": \"book\" }").build();
+
+        assertThat(pattern.isMatchedBy(request).getGroups(), is(new MatchedGroups("123", "book")));
+    }
+
+    @Test
+    public void capturesHeaderAndParameterGroupsBetweenUrlAndBodyGroups() {
+        RequestPattern pattern = new RequestPattern(GET);
+        pattern.setUrlPattern("/orders/(\\d+)\\?.*");
+        pattern.addHeader("Accept", matches("text/(.*)"));
+        pattern.addParameter("status", matches("(o)pen"));
+        RequestPattern compiledPattern = copyOf(pattern);
+        compiledPattern.compileMatcher();
+
+        Request request = aRequest(context).withMethod(GET).withUrl("/orders/123?status=open")
+                .withHeader("Accept", "text/xml").withParameter("status", "open").build();
+
+        assertThat(pattern.isMatchedBy(request).getGroups(), is(new MatchedGroups("123", "xml", "o")));
+        assertThat(compiledPattern.isMatchedBy(request).getGroups(), is(new MatchedGroups("123", "xml", "o")));
+    }
+
+    @Test
+    public void fallsBackToInterpretedMatchersForJsonBodyPatterns() {
+        RequestPattern pattern = new RequestPattern(POST, "/orders");
+        pattern.setBodyPatterns(asList(equalToJson("{ \"item\": \"book\", \"id\": 123 }")));
+
+        assertThat(CompiledRequestMatcher.compile(pattern.getUrlPattern(), pattern.getUrl(), pattern.getMethod(),
+                pattern.getHeaders(), pattern.getParameters(), pattern.getBodyPatterns()).isPresent(), is(false));
+
+        pattern.compileMatcher();
+        Request request = aRequest(context).withMethod(POST).withUrl("/orders")
+                .withBody("{ \"id\": 123, \"item\": \"book\" }").build();
+        assertThat(pattern.isMatchedBy(request).isMatched(), is(true));
+    }
+
+    private static List<RequestPattern> patterns() {
+        List<RequestPattern> patterns = newArrayList();
+        patterns.add(new RequestPattern(GET, "/orders/123"));
+        patterns.add(new RequestPattern(POST, "/orders/123"));
+        patterns.add(new RequestPattern(ANY));
+
+        RequestPattern urlPattern = new RequestPattern(ANY);
+        urlPattern.setUrlPattern("/orders/(\\d+)");
+        patterns.add(urlPattern);
+
+        RequestPattern withHeaders = new RequestPattern(GET, "/orders/123");
+        withHeaders.addHeader("Accept", equalTo("application/json"));
+        withHeaders.addHeader("X-Debug", absent());
+        patterns.add(withHeaders);
+
+        RequestPattern withHeaderRegex = new RequestPattern(GET);
+        withHeaderRegex.setUrlPattern("/orders/.*");
+        withHeaderRegex.addHeader("Accept", matches("text/(.*)"));
+        patterns.add(withHeaderRegex);
+
+        RequestPattern withNegatedHeader = new RequestPattern(ANY);
+        withNegatedHeader.setUrlPattern("/orders.*");
+        ValuePattern notJson = new ValuePattern();
+        notJson.setDoesNotMatch(".*json.*");
+        withNegatedHeader.addHeader("Accept", notJson);
+        patterns.add(withNegatedHeader);
+
+        RequestPattern withParameter = new RequestPattern(GET);
+        withParameter.setUrlPattern("/orders\\?.*");
+        withParameter.addParameter("status", equalTo("open"));
+        patterns.add(withParameter);
+
+        RequestPattern withBody = new RequestPattern(POST, "/orders");
+        withBody.setBodyPatterns(asList(containing("book"), matches(".*\"id\": (\\d+).*")));
+        patterns.add(withBody);
+
+        RequestPattern withAbsentBody = new RequestPattern(POST, "/orders");
+        withAbsentBody.setBodyPatterns(asList(absent()));
+        patterns.add(withAbsentBody);
+
+        return patterns;
+    }
+
+    private static RequestPattern copyOf(RequestPattern pattern) {
+        return RequestPattern.buildRequestPatternFrom(pattern.toString());
+    }
+}
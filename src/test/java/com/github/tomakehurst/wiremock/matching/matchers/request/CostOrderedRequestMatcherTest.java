@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.request;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.MatchedGroups;
+import com.github.tomakehurst.wiremock.matching.PatternMatch;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CostOrderedRequestMatcherTest {
+
+    private List<String> evaluated;
+    private Mockery context;
+
+    @Before
+    public void init() {
+        evaluated = Collections.synchronizedList(new ArrayList<String>());
+        context = new Mockery();
+    }
+
+    @Test
+    public void evaluatesCheapestMatchersFirst() {
+        CostOrderedRequestMatcher matcher = new CostOrderedRequestMatcher(
+                matcher("body", 100, PatternMatch.matched()),
+                matcher("url", 10, PatternMatch.matched()),
+                matcher("method", 1, PatternMatch.matched()));
+
+        matcher.matches(null);
+
+        assertThat(evaluated, is(asList("method", "url", "body")));
+    }
+
+    @Test
+    public void stopsAtFirstRejectingMatcher() {
+        CostOrderedRequestMatcher matcher = new CostOrderedRequestMatcher(
+                matcher("body", 100, PatternMatch.matched()),
+                matcher("method", 1, PatternMatch.notMatched()));
+
+        assertThat(matcher.matches(null).isMatched(), is(false));
+        assertThat(evaluated, is(asList("method")));
+    }
+
+    @Test
+    public void combinesGroupsInDeclarationOrderRegardlessOfEvaluationOrder() {
+        CostOrderedRequestMatcher matcher = new CostOrderedRequestMatcher(
+                matcher("url", 16, PatternMatch.matched(new MatchedGroups("fromUrl"))),
+                matcher("method", 1, PatternMatch.matched()),
+                matcher("body", 8, PatternMatch.matched(new MatchedGroups("fromBody1", "fromBody2"))));
+
+        PatternMatch match = matcher.matches(null);
+
+        assertThat(evaluated, is(asList("method", "body", "url")));
+        assertThat(match.getGroups(), is(new MatchedGroups("fromUrl", "fromBody1", "fromBody2")));
+    }
+
+    @Test
+    public void movesMatchersThatUsuallyRejectAheadOnceRejectRatesAreObserved() {
+        CostOrderedRequestMatcher matcher = new CostOrderedRequestMatcher(1,
+                matcher("usuallyPasses", 4, PatternMatch.matched()),
+                matcher("alwaysRejects", 4, PatternMatch.notMatched()));
+        assertThat(matcher.evaluationOrder()[0], is(0));
+
+        for (int i = 0; i < CostOrderedRequestMatcher.REORDER_INTERVAL; i++) {
+            matcher.matches(null);
+        }
+
+        assertThat(matcher.evaluationOrder()[0], is(1));
+    }
+
+    @Test
+    public void onlyObservesSampledRequests() {
+        CostOrderedRequestMatcher matcher = new CostOrderedRequestMatcher(1 << 30,
+                matcher("usuallyPasses", 4, PatternMatch.matched()),
+                matcher("alwaysRejects", 4, PatternMatch.notMatched()));
+
+        for (int i = 0; i < CostOrderedRequestMatcher.REORDER_INTERVAL * 4; i++) {
+            matcher.test(aRequest(context, "request" + i).build());
+        }
+
+        assertThat(matcher.evaluationOrder()[0], is(0));
+    }
+
+    @Test
+    public void keepsOrderConsistentWhenMatchedFromSeveralThreads() throws Exception {
+        final CostOrderedRequestMatcher matcher = new CostOrderedRequestMatcher(1,
+                matcher("usuallyPasses", 4, PatternMatch.matched()),
+                matcher("alwaysRejects", 4, PatternMatch.notMatched()));
+
+        List<Thread> threads = newArrayList();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+                public void run() {
+                    for (int j = 0; j < CostOrderedRequestMatcher.REORDER_INTERVAL * 16; j++) {
+                        matcher.test(null);
+                    }
+                }
+            });
+        }
+        for (Thread thread: threads) {
+            thread.start();
+        }
+        for (Thread thread: threads) {
+            thread.join();
+        }
+
+        assertThat(matcher.evaluationOrder()[0], is(1));
+        assertThat(matcher.evaluationOrder().length, is(2));
+    }
+
+    private RequestMatcher matcher(final String name, final int cost, final PatternMatch result) {
+        return new RequestMatcher() {
+            @Override
+            public PatternMatch matches(Request request) {
+                evaluated.add(name);
+                return result;
+            }
+
+            @Override
+            public int estimatedCost() {
+                return cost;
+            }
+        };
+    }
+}
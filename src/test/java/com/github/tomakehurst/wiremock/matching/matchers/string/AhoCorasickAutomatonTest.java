@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AhoCorasickAutomatonTest {
+
+    @Test
+    public void findsOverlappingAndNestedLiterals() {
+        AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(asList("he", "she", "his", "hers", "xyz"));
+
+        assertThat(automaton.occurringIndexes("ushers"), is(bits(0, 1, 3)));
+        assertThat(automaton.occurringIndexes("this"), is(bits(2)));
+        assertThat(automaton.occurringIndexes(""), is(bits()));
+    }
+
+    @Test
+    public void alwaysFindsEmptyLiterals() {
+        AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(asList("", "abc"));
+
+        assertThat(automaton.occurringIndexes("xyz"), is(bits(0)));
+    }
+
+    @Test
+    public void agreesWithStringContains() {
+        Random random = new Random(1);
+        for (int run = 0; run < 200; run++) {
+            List<String> literals = newArrayList();
+            for (int i = 0; i < 8; i++) {
+                literals.add(randomString(random, 1 + random.nextInt(4)));
+            }
+            String input = randomString(random, random.nextInt(40));
+
+            BitSet expected = new BitSet();
+            for (int i = 0; i < literals.size(); i++) {
+                if (input.contains(literals.get(i))) {
+                    expected.set(i);
+                }
+            }
+
+            assertThat(literals + " in " + input,
+                    new AhoCorasickAutomaton(literals).occurringIndexes(input), is(expected));
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    private static BitSet bits(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int index: indexes) {
+            bits.set(index);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.matching.matchers.string.CanonicalJson.canonicalFormOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class CanonicalJsonTest {
+
+    @Test
+    public void sortsObjectKeysAndArrayElements() {
+        assertThat(canonicalFormOf("{ \"b\": [3, 1, 2], \"a\": { \"y\": true, \"x\": null } }"),
+                is("{\"a\":{\"x\":null,\"y\":true},\"b\":[1.0,2.0,3.0]}"));
+    }
+
+    @Test
+    public void normalisesNumbersAsJsonAssertComparesThem() {
+        assertThat(canonicalFormOf("[1, 1.0, 1e0, -0.0, 0]"), is(canonicalFormOf("[1.0, 1, 1, 0, 0.0]")));
+    }
+
+    @Test
+    public void distinguishesStringsFromOtherValues() {
+        assertThat(canonicalFormOf("[\"1\"]"), not(canonicalFormOf("[1]")));
+        assertThat(canonicalFormOf("[\"null\"]"), not(canonicalFormOf("[null]")));
+    }
+
+    @Test
+    public void hasNoCanonicalFormForAnythingButObjectsAndArrays() {
+        assertThat(canonicalFormOf("\"text\""), nullValue());
+        assertThat(canonicalFormOf("{ broken"), nullValue());
+        assertThat(canonicalFormOf(null), nullValue());
+    }
+
+    @Test
+    public void remembersCanonicalFormOfBodies() {
+        String body = "{ \"id\": 1 }";
+
+        assertThat(CanonicalJson.canonicalFormOfBody(body), is(canonicalFormOf(body)));
+        assertThat(CanonicalJson.canonicalFormOfBody(body) == CanonicalJson.canonicalFormOfBody(body), is(true));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CanonicalXmlTest {
+
+    @Test
+    public void ignoresAttributeOrderAndWhitespaceBetweenElements() {
+        assertThat(canonicalFormOf("<order id=\"1\" type=\"new\">\n  <item>  thing </item>\n</order>"),
+                is(canonicalFormOf("<order type=\"new\" id=\"1\"><item>thing</item></order>")));
+    }
+
+    @Test
+    public void keepsEverythingXmlUnitMayConsiderDifferent() {
+        String document = "<a:order xmlns:a=\"urn:orders\"><item/></a:order>";
+
+        assertThat(canonicalFormOf(document), not(canonicalFormOf("<b:order xmlns:b=\"urn:orders\"><item/></b:order>")));
+        assertThat(canonicalFormOf(document), not(canonicalFormOf("<a:order xmlns:a=\"urn:orders\"><!-- note --><item/></a:order>")));
+        assertThat(canonicalFormOf(document), not(canonicalFormOf("<a:order xmlns:a=\"urn:other\"><item/></a:order>")));
+    }
+
+    @Test
+    public void hasNoCanonicalFormForDocumentsWithADoctype() {
+        assertThat(canonicalFormOf("<!DOCTYPE order [ <!ELEMENT order ANY> ]><order/>"), nullValue());
+    }
+
+    @Test
+    public void parsesEachBodyOnce() {
+        String body = "<order/>";
+
+        assertThat(ParsedXml.of(body).document(), sameInstance(ParsedXml.of(body).document()));
+        assertThat(ParsedXml.of("<order>").document(), nullValue());
+    }
+
+    @Test
+    public void releasesDocumentsOnceTheirBodiesAreUnreachable() throws Exception {
+        long cachedBefore = ParsedXml.cachedDocuments();
+        for (int i = 0; i < 50; i++) {
+            ParsedXml.of("<order id=\"" + i + "\"/>").document();
+        }
+
+        for (int attempt = 0; attempt < 20 && ParsedXml.cachedDocuments() > cachedBefore; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertThat(ParsedXml.cachedDocuments() <= cachedBefore, is(true));
+    }
+
+    @Test
+    public void matchesCanonicallyEqualAndSimilarDocuments() {
+        PatternMatcher matcher = PatternMatcher.equalsToXml("<a:order xmlns:a=\"urn:orders\" id=\"1\"><item>thing</item></a:order>");
+
+        assertThat(matcher.test("<a:order id=\"1\" xmlns:a=\"urn:orders\">\n  <item>thing</item>\n</a:order>"), is(true));
+        assertThat(matcher.test("<b:order xmlns:b=\"urn:orders\" id=\"1\"><item>thing</item></b:order>"), is(true));
+        assertThat(matcher.test("<a:order xmlns:a=\"urn:orders\" id=\"2\"><item>thing</item></a:order>"), is(false));
+        assertThat(matcher.test("not xml"), is(false));
+    }
+
+    @Test
+    public void comparesSimilarDocumentsFromSeveralThreadsAtOnce() throws Exception {
+        final PatternMatcher matcher = PatternMatcher.equalsToXml("<a:order xmlns:a=\"urn:orders\"><item>thing</item><item>other</item></a:order>");
+        final String body = "<b:order xmlns:b=\"urn:orders\"><item>thing</item><item>other</item></b:order>";
+        final AtomicInteger failures = new AtomicInteger();
+
+        List<Thread> threads = newArrayList();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread() {
+                public void run() {
+                    for (int j = 0; j < 50; j++) {
+                        try {
+                            if (!matcher.test(body)) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread thread: threads) {
+            thread.start();
+        }
+        for (Thread thread: threads) {
+            thread.join();
+        }
+
+        assertThat(failures.get(), is(0));
+    }
+
+    @Test
+    public void comparesDifferentSimilarDocumentsWithOneExpectedDocumentFromSeveralThreadsAtOnce() throws Exception {
+        final PatternMatcher matcher = PatternMatcher.equalsToXml("<a:order xmlns:a=\"urn:orders\"><item>thing</item><item>other</item></a:order>");
+        final AtomicInteger failures = new AtomicInteger();
+
+        List<Thread> threads = newArrayList();
+        for (int i = 0; i < 8; i++) {
+            final String body = "<b" + i + ":order xmlns:b" + i + "=\"urn:orders\"><item>thing</item><item>other</item></b" + i + ":order>";
+            threads.add(new Thread() {
+                public void run() {
+                    for (int j = 0; j < 50; j++) {
+                        try {
+                            if (!matcher.test(body)) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread thread: threads) {
+            thread.start();
+        }
+        for (Thread thread: threads) {
+            thread.join();
+        }
+
+        assertThat(failures.get(), is(0));
+    }
+
+    private static String canonicalFormOf(String xml) {
+        return CanonicalXml.canonicalFormOf(ParsedXml.parse(xml));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class CombinedRegexAutomatonTest {
+
+    private static final List<String> REGEXES = asList(
+            "/api/v2/orders/[0-9]+",
+            "/api/v2/orders/\\d+/items(/.*)?",
+            "/api/v2/(orders|customers)/.*",
+            "/api/v2/customers/[^/]+",
+            "^/search\\?q=[a-z]{2,4}$",
+            "/files/[\\w.-]+\\.json",
+            "/a*b+c?",
+            "(?:/x|/y){2}",
+            "/(?<name>[A-Z][a-z]*)",
+            "/unicode/\\u00e9+",
+            "/lazy/.*?end",
+            "/spaces/\\s+\\S",
+            ".*"
+    );
+
+    private static final List<String> URLS = asList(
+            "/api/v2/orders/123",
+            "/api/v2/orders/",
+            "/api/v2/orders/12a",
+            "/api/v2/orders/12/items",
+            "/api/v2/orders/12/items/4",
+            "/api/v2/customers/abc",
+            "/api/v2/customers/abc/def",
+            "/search?q=ab",
+            "/search?q=abcde",
+            "/files/my-file.v2.json",
+            "/files/my file.json",
+            "/b",
+            "/aaabbc",
+            "/ac",
+            "/x/y",
+            "/x/y/x",
+            "/Name",
+            "/name",
+            "/unicode/\u00e9\u00e9",
+            "/lazy/the end",
+            "/spaces/ \tx",
+            "",
+            "/line\nbreak"
+    );
+
+    @Test
+    public void matchesTheSameUrlsAsJavaRegex() {
+        CombinedRegexAutomaton automaton = new CombinedRegexAutomaton(REGEXES);
+
+        for (String url: URLS) {
+            int[] expected = indexesMatchedByJavaRegex(url);
+            int[] actual = automaton.matchingIndexes(url);
+            assertThat("Matching indexes for " + url, asList(box(actual)), is(asList(box(expected))));
+        }
+    }
+
+    @Test
+    public void returnsNullForInputContainingSurrogatePairs() {
+        CombinedRegexAutomaton automaton = new CombinedRegexAutomaton(asList(".*"));
+
+        assertThat(automaton.matchingIndexes("/emoji/\ud83d\ude00"), is(nullValue()));
+    }
+
+    @Test
+    public void supportsCommonRegexSyntax() {
+        for (String regex: REGEXES) {
+            assertThat(regex, CombinedRegexAutomaton.isSupported(regex), is(true));
+        }
+    }
+
+    @Test
+    public void doesNotSupportConstructsThatDependOnMoreThanTheMatchedCharacters() {
+        assertThat(CombinedRegexAutomaton.isSupported("/(a)\\1"), is(false));
+        assertThat(CombinedRegexAutomaton.isSupported("/(?=a)a"), is(false));
+        assertThat(CombinedRegexAutomaton.isSupported("(?i)/orders"), is(false));
+        assertThat(CombinedRegexAutomaton.isSupported("/a*+"), is(false));
+        assertThat(CombinedRegexAutomaton.isSupported("\\b/orders"), is(false));
+        assertThat(CombinedRegexAutomaton.isSupported("/a{1000}"), is(false));
+        assertThat(CombinedRegexAutomaton.isSupported("/[a-z&&[^b]]"), is(false));
+    }
+
+    private static int[] indexesMatchedByJavaRegex(String url) {
+        int[] indexes = new int[REGEXES.size()];
+        int count = 0;
+        for (int i = 0; i < REGEXES.size(); i++) {
+            if (Pattern.compile(REGEXES.get(i), Pattern.DOTALL).matcher(url).matches()) {
+                indexes[count++] = i;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(indexes, 0, result, 0, count);
+        return result;
+    }
+
+    private static Integer[] box(int[] values) {
+        Integer[] boxed = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
+import org.junit.Test;
+
+import java.util.regex.PatternSyntaxException;
+
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.equalToJson;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.matches;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.skyscreamer.jsonassert.JSONCompareMode.LENIENT;
+import static org.skyscreamer.jsonassert.JSONCompareMode.STRICT;
+
+public class InternedPatternsTest {
+
+    @Test
+    public void sharesMatchersForIdenticalExpressions() {
+        assertThat(matches("/orders/.*").getMatcher(), is(sameInstance(matches("/orders/.*").getMatcher())));
+        assertThat(PatternMatcher.jsonPath("$.id"), is(sameInstance(PatternMatcher.jsonPath("$.id"))));
+        assertThat(PatternMatcher.equalsToXml("<order/>"), is(sameInstance(PatternMatcher.equalsToXml("<order/>"))));
+        assertThat(InternedPatterns.regex("[0-9]+"), is(sameInstance(InternedPatterns.regex("[0-9]+"))));
+    }
+
+    @Test
+    public void distinguishesExpressionsOfDifferentKinds() {
+        assertThat(PatternMatcher.regex("$.id"), is(not(sameInstance(PatternMatcher.jsonPath("$.id")))));
+        assertThat(equalToJson("{}", STRICT).getMatcher(), is(not(sameInstance(equalToJson("{}", LENIENT).getMatcher()))));
+    }
+
+    @Test
+    public void buildsValuePatternMatcherOnlyOnceComplete() {
+        ValuePattern pattern = new ValuePattern();
+        pattern.setEqualToJson("{ \"id\": 1 }");
+        pattern.setJsonCompareMode(STRICT);
+
+        assertThat(pattern.getMatcher(), is(sameInstance(PatternMatcher.equalsToJson("{ \"id\": 1 }", STRICT))));
+    }
+
+    @Test(expected=PatternSyntaxException.class)
+    public void reportsInvalidRegexWhenRequestPatternIsPrepared() {
+        RequestPattern pattern = RequestPattern.buildRequestPatternFrom("{ \"method\": \"GET\", \"urlPattern\": \"/orders/[0-9\" }");
+        pattern.prepareMatcher();
+    }
+}
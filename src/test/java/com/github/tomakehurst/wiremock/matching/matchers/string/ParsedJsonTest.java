@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.jayway.jsonpath.JsonPath;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ParsedJsonTest {
+
+    @Test
+    public void parsesEachFormOnlyOncePerString() {
+        String body = "{ \"id\": 1 }";
+
+        Object jsonPathDocument = ParsedJson.of(body).jsonPathDocument();
+        Object jsonAssertDocument = ParsedJson.of(body).jsonAssertDocument();
+
+        assertThat(ParsedJson.of(body).jsonPathDocument(), sameInstance(jsonPathDocument));
+        assertThat(ParsedJson.of(body).jsonAssertDocument(), sameInstance(jsonAssertDocument));
+        assertThat(jsonAssertDocument, instanceOf(JSONObject.class));
+    }
+
+    @Test
+    public void releasesDocumentsOnceTheirStringsAreUnreachable() throws Exception {
+        long cachedBefore = ParsedJson.cachedDocuments();
+        for (int i = 0; i < 50; i++) {
+            ParsedJson.of("{ \"id\": " + i + " }").jsonPathDocument();
+        }
+
+        for (int attempt = 0; attempt < 20 && ParsedJson.cachedDocuments() > cachedBefore; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertThat(ParsedJson.cachedDocuments() <= cachedBefore, is(true));
+    }
+
+    @Test
+    public void doesNotShareDocumentsBetweenDistinctStrings() {
+        String body = "{ \"id\": 1 }";
+        String equalBody = new String(body);
+
+        assertThat(ParsedJson.of(equalBody).jsonPathDocument() == ParsedJson.of(body).jsonPathDocument(), is(false));
+    }
+
+    @Test
+    public void remembersParseFailures() {
+        String body = "{ \"id\": ";
+
+        assertThat(ParsedJson.of(body).jsonAssertDocument(), nullValue());
+        RuntimeException first = jsonPathFailureOf(body);
+        assertThat(jsonPathFailureOf(body), sameInstance(first));
+    }
+
+    @Test
+    public void readsEachJsonPathOncePerDocument() {
+        String body = "{ \"items\": [ { \"id\": 1 }, { \"id\": 2 } ] }";
+
+        Object ids = ParsedJson.of(body).read(JsonPath.compile("$.items[*].id"));
+
+        assertThat(ParsedJson.of(body).read(JsonPath.compile("$.items[*].id")), sameInstance(ids));
+        assertThat(ids.toString(), is("[1,2]"));
+    }
+
+    @Test
+    public void remembersJsonPathsThatFailToRead() {
+        String body = "{ \"id\": 1 }";
+        JsonPath path = JsonPath.compile("$.name");
+
+        RuntimeException first = readFailureOf(body, path);
+        assertThat(readFailureOf(body, path), sameInstance(first));
+        assertThat(first.getMessage(), is("invalid path"));
+    }
+
+    @Test
+    public void rejectsEmptyDocumentsLikeJsonPath() {
+        assertThat(jsonPathFailureOf("").getMessage(), is("json can not be null or empty"));
+        assertThat(jsonPathFailureOf(null).getMessage(), is("json can not be null or empty"));
+    }
+
+    private static RuntimeException readFailureOf(String body, JsonPath path) {
+        try {
+            ParsedJson.of(body).read(path);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        fail("Expected " + path.getPath() + " not to read anything from " + body);
+        return null;
+    }
+
+    private static RuntimeException jsonPathFailureOf(String body) {
+        try {
+            ParsedJson.of(body).jsonPathDocument();
+        } catch (RuntimeException e) {
+            return e;
+        }
+        fail("Expected " + body + " not to be readable by JsonPath");
+        return null;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
+import com.google.common.base.Strings;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.matches;
+import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class RegexBudgetTest {
+
+    private static final String BACKTRACKING_REGEX = ".*a.*a.*a.*b";
+    private static final String BACKTRACKING_VALUE = Strings.repeat("a", 500) + "bc";
+
+    private Mockery context;
+    private RegexBudget budget;
+
+    @Before
+    public void init() {
+        context = new Mockery();
+        budget = new RegexBudget();
+        RegexBudget.set(budget);
+    }
+
+    @After
+    public void removeBudget() {
+        RegexBudget.set(null);
+    }
+
+    @Test
+    public void leavesValuesUnchangedWithoutBudget() {
+        String value = "abc";
+        assertThat(RegexBudget.budgeted(value), is(sameInstance((CharSequence) value)));
+    }
+
+    @Test
+    public void matchesNormallyWithinBudget() {
+        budget.setStepBudget(1000);
+        RegexPatternMatcher matcher = new RegexPatternMatcher("/orders/([0-9]+)");
+
+        assertThat(matcher.test("/orders/123"), is(true));
+        assertThat(matcher.matches("/orders/123").getGroups().getGroup(0), is("123"));
+    }
+
+    @Test(expected=RegexBudgetExceededException.class)
+    public void givesUpOnExcessiveBacktracking() {
+        budget.setStepBudget(100000);
+        new RegexPatternMatcher(BACKTRACKING_REGEX).test(BACKTRACKING_VALUE);
+    }
+
+    @Test
+    public void treatsOverrunAsNonMatchOfWholeRequestPattern() {
+        budget.setStepBudget(100000);
+        Request request = aRequest(context).withMethod(POST).withUrl("/orders")
+                .withBody(BACKTRACKING_VALUE).build();
+
+        for (RequestPattern pattern: asList(bodyPattern(false), bodyPattern(true))) {
+            assertThat(pattern.test(request), is(false));
+            assertThat(pattern.isMatchedBy(request).isMatched(), is(false));
+            assertThat(pattern.getRegexBudgetOverruns(), is(2L));
+        }
+        assertThat(budget.overruns(), is(4L));
+    }
+
+    @Test
+    public void countsOverrunsAgainstTheBudgetSetForTheThread() {
+        budget.setStepBudget(100000);
+        RegexBudget otherBudget = new RegexBudget();
+        otherBudget.setStepBudget(100000);
+        Request request = aRequest(context).withMethod(POST).withUrl("/orders")
+                .withBody(BACKTRACKING_VALUE).build();
+
+        bodyPattern(false).test(request);
+        RegexBudget.set(otherBudget);
+        bodyPattern(false).test(request);
+        bodyPattern(false).test(request);
+
+        assertThat(budget.overruns(), is(1L));
+        assertThat(otherBudget.overruns(), is(2L));
+    }
+
+    @Test
+    public void appliesNoLimitWhenTheThreadHasNoBudget() {
+        budget.setStepBudget(1000);
+        RegexBudget.set(null);
+
+        assertThat(new RegexPatternMatcher(BACKTRACKING_REGEX).test(Strings.repeat("a", 100) + "bc"), is(false));
+        assertThat(budget.overruns(), is(0L));
+    }
+
+    @Test
+    public void doesNotMatchNegatedRegexThatOverruns() {
+        budget.setStepBudget(100000);
+        Request request = aRequest(context).withMethod(POST).withUrl("/orders")
+                .withBody(BACKTRACKING_VALUE).build();
+        ValuePattern bodyPattern = new ValuePattern();
+        bodyPattern.setDoesNotMatch(BACKTRACKING_REGEX);
+        RequestPattern pattern = new RequestPattern(POST, "/orders");
+        pattern.setBodyPatterns(asList(bodyPattern));
+
+        assertThat(pattern.test(request), is(false));
+        assertThat(pattern.getRegexBudgetOverruns(), is(1L));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void rejectsBudgetOfZero() {
+        new RegexBudget().setStepBudget(0);
+    }
+
+    private static RequestPattern bodyPattern(boolean compiled) {
+        RequestPattern pattern = new RequestPattern(POST, "/orders");
+        pattern.setBodyPatterns(asList(matches(BACKTRACKING_REGEX)));
+        if (compiled) {
+            pattern.compileMatcher();
+        }
+        return pattern;
+    }
+}
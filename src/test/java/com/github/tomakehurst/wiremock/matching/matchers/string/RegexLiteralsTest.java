@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static com.github.tomakehurst.wiremock.matching.matchers.string.RegexLiterals.containsAll;
+import static com.github.tomakehurst.wiremock.matching.matchers.string.RegexLiterals.prefixOf;
+import static com.github.tomakehurst.wiremock.matching.matchers.string.RegexLiterals.requiredLiteralsOf;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RegexLiteralsTest {
+
+    @Test
+    public void returnsLiteralTextBeforeFirstMetaCharacter() {
+        assertThat(prefixOf("/api/v2/orders/[0-9]+"), is("/api/v2/orders/"));
+        assertThat(prefixOf("/api/v2/orders/(.*)"), is("/api/v2/orders/"));
+        assertThat(prefixOf("/api/v2/orders"), is("/api/v2/orders"));
+    }
+
+    @Test
+    public void includesEscapedMetaCharacters() {
+        assertThat(prefixOf("/search\\?q=.*"), is("/search?q="));
+        assertThat(prefixOf("/file\\.json"), is("/file.json"));
+    }
+
+    @Test
+    public void stopsAtEscapedCharacterClasses() {
+        assertThat(prefixOf("/orders/\\d+"), is("/orders/"));
+        assertThat(prefixOf("\\Q/orders\\E"), is(""));
+    }
+
+    @Test
+    public void excludesLastCharacterWhenItIsOptional() {
+        assertThat(prefixOf("/orders?"), is("/order"));
+        assertThat(prefixOf("/orders*"), is("/order"));
+        assertThat(prefixOf("/orders{0,2}"), is("/order"));
+        assertThat(prefixOf("/orders+"), is("/orders"));
+    }
+
+    @Test
+    public void ignoresLeadingAnchor() {
+        assertThat(prefixOf("^/orders/.*"), is("/orders/"));
+    }
+
+    @Test
+    public void returnsEmptyPrefixForTopLevelAlternation() {
+        assertThat(prefixOf("/orders/.*|/customers/.*"), is(""));
+        assertThat(prefixOf("/orders/(1|2)"), is("/orders/"));
+        assertThat(prefixOf("/orders/[|]"), is("/orders/"));
+    }
+
+    @Test
+    public void returnsEmptyPrefixWhenRegexStartsWithMetaCharacter() {
+        assertThat(prefixOf(".*"), is(""));
+        assertThat(prefixOf("(?i)/orders"), is(""));
+        assertThat(prefixOf("[a-z]+/orders"), is(""));
+    }
+
+    @Test
+    public void findsRequiredLiteralsOutsideGroupsAndClasses() {
+        assertThat(asList(requiredLiteralsOf(".*\"status\":\\s*\"FAILED\".*")), is(asList("\"status\":", "\"FAILED\"")));
+        assertThat(asList(requiredLiteralsOf("/orders/[0-9]+/items(/.*)?")), is(asList("/orders/", "/items")));
+        assertThat(asList(requiredLiteralsOf("^token-\\p{Alnum}{8}$")), is(asList("token-")));
+    }
+
+    @Test
+    public void dropsOptionalCharactersButKeepsRepeatedOnes() {
+        assertThat(asList(requiredLiteralsOf("colou?r")), is(asList("colo", "r")));
+        assertThat(asList(requiredLiteralsOf("abc{0,2}d")), is(asList("ab", "d")));
+        assertThat(asList(requiredLiteralsOf("ab+?c")), is(asList("ab", "c")));
+        assertThat(asList(requiredLiteralsOf("file\\.json")), is(asList("file.json")));
+    }
+
+    @Test
+    public void findsNoLiteralsWhenTheirMeaningCouldChange() {
+        assertThat(requiredLiteralsOf("FAILED|ERROR").length, is(0));
+        assertThat(requiredLiteralsOf("(?i).*failed.*").length, is(0));
+        assertThat(requiredLiteralsOf(".*\\Qa.b\\E.*").length, is(0));
+        assertThat(asList(requiredLiteralsOf("(?:a|b)cd")), is(asList("cd")));
+    }
+
+    @Test
+    public void neverRejectsStringsTheRegexMatches() {
+        String[] regexes = { ".*\"id\":\\s*[0-9]+.*", "/orders/[0-9]+/items(/.*)?", "colou?r", "ab+?c",
+                "abc{0,2}d", "a\\.b*c", "[(]x+\\)y", "(a(b)c)?d\\p{Digit}e" };
+        String[] inputs = { "{\"id\": 12}", "/orders/1/items", "/orders/1/items/2", "color", "colour", "abbbc",
+                "abd", "abccd", "a.c", "a.bbc", "(xx)y", "abcd1e", "d2e", "" };
+        for (String regex: regexes) {
+            Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
+            String[] literals = requiredLiteralsOf(regex);
+            for (String input: inputs) {
+                if (pattern.matcher(input).matches()) {
+                    assertThat(regex + " against " + input, containsAll(input, literals), is(true));
+                }
+            }
+        }
+        assertThat(containsAll("colour", requiredLiteralsOf("colou?r")), is(true));
+        assertThat(containsAll("flavour", requiredLiteralsOf("colou?r")), is(false));
+    }
+
+    @Test
+    public void consumesWholeEscapesThatTakeAnArgument() {
+        assertThat(asList(requiredLiteralsOf("\\x41BC")), is(asList("BC")));
+        assertThat(asList(requiredLiteralsOf("\\x{41}BC")), is(asList("BC")));
+        assertThat(asList(requiredLiteralsOf("\\u0041BC")), is(asList("BC")));
+        assertThat(asList(requiredLiteralsOf("\\0101BC")), is(asList("BC")));
+        assertThat(asList(requiredLiteralsOf("\\cJBC")), is(asList("BC")));
+        assertThat(asList(requiredLiteralsOf("(?<first>A)\\k<first>BC")), is(asList("BC")));
+        assertThat(asList(requiredLiteralsOf("\\pLBC")), is(asList("BC")));
+        assertThat(asList(requiredLiteralsOf("\\p{Lu}BC")), is(asList("BC")));
+        assertThat(asList(requiredLiteralsOf("(A)\\1BC")), is(asList("BC")));
+    }
+
+    @Test
+    public void neverRejectsStringsMatchingRegexesWithEscapesThatTakeAnArgument() {
+        String[] regexes = { "\\x41BC", "\\x{41}BC", "\\u0041BC", "\\0101BC", "\\cABC", "(?<first>A)\\k<first>BC",
+                "\\pLBC", "\\p{Lu}BC", "(A)\\1BC", "(A)\\11" };
+        String[] inputs = { "ABC", "AABC", "\u0001BC", "A1", "AA1" };
+        for (String regex: regexes) {
+            Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
+            String[] literals = requiredLiteralsOf(regex);
+            for (String input: inputs) {
+                if (pattern.matcher(input).matches()) {
+                    assertThat(regex + " against " + input, containsAll(input, literals), is(true));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void prefixStopsAtEscapesThatTakeAnArgument() {
+        assertThat(prefixOf("/a\\x41BC"), is("/a"));
+        assertThat(prefixOf("/a\\u0041BC"), is("/a"));
+        assertThat(prefixOf("/a\\0101BC"), is("/a"));
+        assertThat(prefixOf("/a\\cJBC"), is("/a"));
+        assertThat(prefixOf("/a\\p{Lu}BC"), is("/a"));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.matching.matchers.string;
+
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.matching.matchers.string.StreamingJsonPath.Result.EMPTY;
+import static com.github.tomakehurst.wiremock.matching.matchers.string.StreamingJsonPath.Result.MISSING;
+import static com.github.tomakehurst.wiremock.matching.matchers.string.StreamingJsonPath.Result.PRESENT;
+import static com.github.tomakehurst.wiremock.matching.matchers.string.StreamingJsonPath.Result.UNRESOLVED;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class StreamingJsonPathTest {
+
+    private static final String[] DOCUMENTS = {
+            "{ \"header\": { \"type\": \"order\", \"tags\": [], \"extra\": {} }, \"items\": [ { \"id\": 1 }, { \"id\": null } ] }",
+            "{ \"header\": null, \"items\": {} }",
+            "{ \"header\": \"text\", \"items\": [ [1, 2], [] ], \"a b\": false }",
+            "[ { \"header\": { \"type\": 0 } }, [] ]",
+            "\"just a string\"",
+            "{ unquoted: 1 }"
+    };
+
+    private static final String[] PATHS = {
+            "$", "$.header", "$.header.type", "$.header.tags", "$.header.extra", "$.header.missing",
+            "$.missing.type", "$.items[0]", "$.items[0].id", "$.items[1].id", "$.items[5]", "$.items[0][1]",
+            "$.items[1][0]", "$['header']['type']", "$.a b", "$[0].header.type", "$[1]", "$.items.id"
+    };
+
+    @Test
+    public void agreesWithJsonPathWheneverItResolvesAPathInAWellFormedDocument() {
+        for (String document: DOCUMENTS) {
+            if (!isWellFormed(document)) {
+                continue;
+            }
+
+            for (String path: PATHS) {
+                StreamingJsonPath streamingPath = StreamingJsonPath.compile(path);
+                assertThat(path, streamingPath, notNullValue());
+
+                StreamingJsonPath.Result result = streamingPath.evaluate(document);
+                String description = path + " on " + document;
+                if (result == PRESENT || result == EMPTY) {
+                    assertThat(description, isPresent(JsonPath.read(document, path)), is(result == PRESENT));
+                } else if (result == MISSING) {
+                    assertThat(description, failureReading(document, path), is("invalid path"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resolvesCommonPathsWithoutFallingBack() {
+        assertThat(StreamingJsonPath.compile("$.header.type").evaluate(DOCUMENTS[0]), is(PRESENT));
+        assertThat(StreamingJsonPath.compile("$.header.tags").evaluate(DOCUMENTS[0]), is(EMPTY));
+        assertThat(StreamingJsonPath.compile("$.header.missing").evaluate(DOCUMENTS[0]), is(MISSING));
+        assertThat(StreamingJsonPath.compile("$.items[1].id").evaluate(DOCUMENTS[0]), is(EMPTY));
+        assertThat(StreamingJsonPath.compile("$.items[5]").evaluate(DOCUMENTS[0]), is(UNRESOLVED));
+    }
+
+    @Test
+    public void fallsBackWhenTheDocumentIsMalformedAfterThePath() {
+        String truncated = "{ \"header\": { \"type\": \"order\" }, \"items\": [ { \"id\": ";
+        String trailingGarbage = "{ \"header\": { \"type\": \"order\" } } trailing";
+
+        assertThat(StreamingJsonPath.compile("$.header.type").evaluate(truncated), is(UNRESOLVED));
+        assertThat(StreamingJsonPath.compile("$.header.missing").evaluate(truncated), is(UNRESOLVED));
+        assertThat(StreamingJsonPath.compile("$.header.type").evaluate(trailingGarbage), is(UNRESOLVED));
+        assertThat(PatternMatcher.jsonPath("$.header.type").test(truncated + padding()), is(false));
+    }
+
+    @Test
+    public void fallsBackWhenAnObjectOnThePathRepeatsTheFieldItIsEnteredBy() {
+        String repeatedValue = "{ \"header\": { \"type\": \"order\" }, \"header\": { \"other\": 1 }, " + padding() + " }";
+        String repeatedNested = "{ \"header\": { \"type\": null, \"type\": \"order\" }, " + padding() + " }";
+
+        assertThat(StreamingJsonPath.compile("$.header.type").evaluate(repeatedValue), is(UNRESOLVED));
+        assertThat(StreamingJsonPath.compile("$.header.type").evaluate(repeatedNested), is(UNRESOLVED));
+        assertThat(PatternMatcher.jsonPath("$.header.type").test(repeatedValue), is(false));
+        assertThat(PatternMatcher.jsonPath("$.header.type").test(repeatedNested), is(true));
+    }
+
+    @Test
+    public void resolvesPathsWhenOnlyFieldsOffThePathRepeat() {
+        String document = "{ \"header\": { \"type\": \"order\", \"tag\": 1, \"tag\": 2 }, \"items\": [ { \"type\": 1 } ] }";
+
+        assertThat(StreamingJsonPath.compile("$.header.type").evaluate(document), is(PRESENT));
+    }
+
+    @Test
+    public void onlyCompilesFieldAndIndexSteps() {
+        assertThat(StreamingJsonPath.compile("$..type"), nullValue());
+        assertThat(StreamingJsonPath.compile("$.items[*].id"), nullValue());
+        assertThat(StreamingJsonPath.compile("$.items[?(@.id == 1)]"), nullValue());
+        assertThat(StreamingJsonPath.compile("$.items[0:2]"), nullValue());
+        assertThat(StreamingJsonPath.compile("header.type"), nullValue());
+    }
+
+    @Test
+    public void streamsLargeBodiesWhenTestingJsonPathPatterns() {
+        StringBuilder body = new StringBuilder("{ \"header\": { \"type\": \"order\" }, \"items\": [");
+        while (body.length() < JsonPathPatternMatcher.STREAMING_THRESHOLD) {
+            body.append("{ \"id\": 1 }, ");
+        }
+        body.append("{ \"id\": 2 } ] }");
+
+        assertThat(PatternMatcher.jsonPath("$.header.type").test(body.toString()), is(true));
+        assertThat(PatternMatcher.jsonPath("$.header.missing").test(body.toString()), is(false));
+        assertThat(PatternMatcher.jsonPath("$.items[?(@.id == 2)]").test(body.toString()), is(true));
+    }
+
+    private static boolean isWellFormed(String document) {
+        try {
+            JsonPath.read(document, "$");
+            return true;
+        } catch (InvalidJsonException e) {
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static boolean isPresent(Object value) {
+        if (value instanceof JSONArray) {
+            return ((JSONArray) value).size() > 0;
+        } else if (value instanceof JSONObject) {
+            return ((JSONObject) value).size() > 0;
+        }
+        return value != null;
+    }
+
+    private static String padding() {
+        StringBuilder padding = new StringBuilder("\"padding\": \"");
+        while (padding.length() < JsonPathPatternMatcher.STREAMING_THRESHOLD) {
+            padding.append("padding ");
+        }
+        return padding.append("\"").toString();
+    }
+
+    private static String failureReading(String document, String path) {
+        try {
+            JsonPath.read(document, path);
+            return null;
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+}
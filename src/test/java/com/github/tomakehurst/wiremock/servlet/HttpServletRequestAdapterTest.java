@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.servlet;
+
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpParameter;
+import com.github.tomakehurst.wiremock.testsupport.MockHttpServletRequest;
+import org.junit.Test;
+
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Charsets.ISO_8859_1;
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.enumeration;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class HttpServletRequestAdapterTest {
+
+    @Test
+    public void readsHeadersOnceAndLooksThemUpIgnoringCase() {
+        StubServletRequest servletRequest = new StubServletRequest()
+                .withHeader("Content-Type", "text/plain")
+                .withHeader("X-Custom", "one", "two");
+        HttpServletRequestAdapter request = new HttpServletRequestAdapter(servletRequest);
+
+        assertThat(request.getHeader("content-type"), is("text/plain"));
+        assertThat(request.containsHeader("CONTENT-TYPE"), is(true));
+        HttpHeader header = request.header("x-CUSTOM");
+        assertThat(header.key(), is("x-CUSTOM"));
+        assertThat(header.values(), is(asList("one", "two")));
+        assertThat(request.header("X-Missing").isPresent(), is(false));
+
+        assertThat(servletRequest.headerNamesReads, is(1));
+        assertThat(servletRequest.headerValuesReads, is(2));
+    }
+
+    @Test
+    public void readsParametersOnlyWhenFirstAskedFor() {
+        StubServletRequest servletRequest = new StubServletRequest().withParameter("Name", "value");
+        HttpServletRequestAdapter request = new HttpServletRequestAdapter(servletRequest);
+
+        assertThat(servletRequest.parameterNamesReads, is(0));
+
+        HttpParameter parameter = request.parameter("NAME");
+        assertThat(parameter.key(), is("NAME"));
+        assertThat(parameter.firstValue(), is("value"));
+        assertThat(request.parameter("name").isPresent(), is(true));
+        assertThat(servletRequest.parameterNamesReads, is(1));
+    }
+
+    @Test
+    public void removesContextPathFromUrl() {
+        StubServletRequest servletRequest = new StubServletRequest();
+        servletRequest.contextPath = "/app";
+        servletRequest.requestUri = "/app/things/1";
+        servletRequest.queryString = "a=b";
+
+        assertThat(new HttpServletRequestAdapter(servletRequest).getUrl(), is("/things/1?a=b"));
+    }
+
+    @Test
+    public void decodesBodyUsingCharsetFromContentTypeAndReadsItOnce() {
+        StubServletRequest servletRequest = new StubServletRequest()
+                .withHeader("Content-Type", "text/plain; charset=UTF-8")
+                .withBody("\u00e9t\u00e9".getBytes(UTF_8));
+        HttpServletRequestAdapter request = new HttpServletRequestAdapter(servletRequest);
+
+        assertThat(request.getBodyAsString(), is("\u00e9t\u00e9"));
+        assertThat(request.getBody(), is("\u00e9t\u00e9".getBytes(UTF_8)));
+        assertThat(request.getBodyAsString(), is("\u00e9t\u00e9"));
+        assertThat(servletRequest.inputStreamReads, is(1));
+    }
+
+    @Test
+    public void decodesBodyAsIso88591WhenContentTypeHasNoCharset() {
+        StubServletRequest servletRequest = new StubServletRequest()
+                .withHeader("Content-Type", "text/plain")
+                .withBody("\u00e9t\u00e9".getBytes(ISO_8859_1));
+
+        assertThat(new HttpServletRequestAdapter(servletRequest).getBodyAsString(), is("\u00e9t\u00e9"));
+    }
+
+    private static class StubServletRequest extends MockHttpServletRequest {
+
+        private final Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+        private final Map<String, String[]> parameters = new LinkedHashMap<String, String[]>();
+        private byte[] body = new byte[0];
+        private String requestUri = "/";
+        private String contextPath = "";
+        private String queryString;
+
+        private int headerNamesReads;
+        private int headerValuesReads;
+        private int parameterNamesReads;
+        private int inputStreamReads;
+
+        StubServletRequest withHeader(String key, String... values) {
+            headers.put(key, asList(values));
+            return this;
+        }
+
+        StubServletRequest withParameter(String key, String... values) {
+            parameters.put(key, values);
+            return this;
+        }
+
+        StubServletRequest withBody(byte[] body) {
+            this.body = body;
+            return this;
+        }
+
+        @Override
+        public String getMethod() {
+            return "POST";
+        }
+
+        @Override
+        public String getRequestURI() {
+            return requestUri;
+        }
+
+        @Override
+        public String getContextPath() {
+            return contextPath;
+        }
+
+        @Override
+        public String getQueryString() {
+            return queryString;
+        }
+
+        @SuppressWarnings("rawtypes")
+        @Override
+        public Enumeration getHeaderNames() {
+            headerNamesReads++;
+            return enumeration(headers.keySet());
+        }
+
+        @SuppressWarnings("rawtypes")
+        @Override
+        public Enumeration getHeaders(String name) {
+            headerValuesReads++;
+            return enumeration(headers.get(name));
+        }
+
+        @SuppressWarnings("rawtypes")
+        @Override
+        public Enumeration getParameterNames() {
+            parameterNamesReads++;
+            return enumeration(parameters.keySet());
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return parameters.get(name);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            inputStreamReads++;
+            final ByteArrayInputStream bodyStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    return bodyStream.read();
+                }
+            };
+        }
+    }
+}
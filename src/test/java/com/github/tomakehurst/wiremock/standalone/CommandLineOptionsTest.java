@@ -140,4 +140,50 @@ public class CommandLineOptionsTest {
     public void preventsRecordingWhenRequestJournalDisabled() {
         new CommandLineOptions("--no-request-journal", "--record-mappings");
     }
+
+    @Test
+    public void returnsCompiledMatchersEnabledWhenOptionPresent() {
+        CommandLineOptions options = new CommandLineOptions("--compiled-matchers");
+        assertThat(options.compiledMatchersEnabled(), is(true));
+    }
+
+    @Test
+    public void returnsCompiledMatchersDisabledByDefault() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.compiledMatchersEnabled(), is(false));
+    }
+
+    @Test
+    public void returnsParallelMatchingThreshold() {
+        CommandLineOptions options = new CommandLineOptions("--parallel-matching-threshold", "500");
+        assertThat(options.parallelMatchingThreshold(), is(500));
+    }
+
+    @Test
+    public void returnsParallelMatchingDisabledByDefault() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.parallelMatchingThreshold(), is(0));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void preventsNegativeParallelMatchingThreshold() {
+        new CommandLineOptions("--parallel-matching-threshold", "-1");
+    }
+
+    @Test
+    public void returnsRegexStepBudget() {
+        CommandLineOptions options = new CommandLineOptions("--regex-step-budget", "100000");
+        assertThat(options.regexStepBudget(), is(100000));
+    }
+
+    @Test
+    public void returnsUnboundedRegexesByDefault() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.regexStepBudget(), nullValue());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void preventsZeroRegexStepBudget() {
+        new CommandLineOptions("--regex-step-budget", "0");
+    }
 }
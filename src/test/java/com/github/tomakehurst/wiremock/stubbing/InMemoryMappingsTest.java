@@ -28,12 +28,19 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.regex.PatternSyntaxException;
+
 import static com.github.tomakehurst.wiremock.http.RequestMethod.*;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.containing;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.equalTo;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.equalToJson;
 import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 @RunWith(JMock.class)
 public class InMemoryMappingsTest {
@@ -91,6 +98,43 @@ public class InMemoryMappingsTest {
 		assertThat(response.getStatus(), is(HTTP_NOT_FOUND));
 	}
 	
+	@Test
+	public void findsRecordedMappingForEachBodyPostedToTheSameUrl() {
+		mappings.addMapping(new StubMapping(new RequestPattern(POST, "/orders"), new ResponseDefinition(200, "")));
+		for (int i = 1; i <= 3; i++) {
+			RequestPattern requestPattern = new RequestPattern(POST, "/orders");
+			requestPattern.setBodyPatterns(asList(equalTo("order " + i)));
+			mappings.addMapping(new StubMapping(requestPattern, new ResponseDefinition(200 + i, "")));
+		}
+
+		assertThat(mappings.serveFor(aRequest(context, "order 2").withMethod(POST).withUrl("/orders").withBody("order 2").build()).getStatus(), is(202));
+		assertThat(mappings.serveFor(aRequest(context, "order 4").withMethod(POST).withUrl("/orders").withBody("order 4").build()).getStatus(), is(200));
+		assertThat(mappings.serveFor(aRequest(context, "order 3").withMethod(POST).withUrl("/orders").withBody("order 3").build()).getStatus(), is(203));
+		assertThat(mappings.serveFor(aRequest(context, "order 2 again").withMethod(POST).withUrl("/orders").withBody("order 2").build()).getStatus(), is(202));
+	}
+
+	@Test
+	public void doesNotReadParametersToCacheMatchesForUrlsWhoseCandidatesDoNotConstrainThem() {
+		mappings.addMapping(new StubMapping(new RequestPattern(POST, "/form"), new ResponseDefinition(200, "")));
+		RequestPattern withParameter = new RequestPattern(GET, "/other");
+		withParameter.addParameter("a", equalTo("1"));
+		mappings.addMapping(new StubMapping(withParameter, new ResponseDefinition(201, "")));
+
+		assertThat(mappings.serveFor(aRequest(context, "first").withMethod(POST).withUrl("/form").withUnreadableParameters().build()).getStatus(), is(200));
+		assertThat(mappings.serveFor(aRequest(context, "cached").withMethod(POST).withUrl("/form").withUnreadableParameters().build()).getStatus(), is(200));
+	}
+
+	@Test
+	public void cachesMatchesByParameterValueForUrlsWhoseCandidatesConstrainThem() {
+		RequestPattern withParameter = new RequestPattern(GET, "/other");
+		withParameter.addParameter("a", equalTo("1"));
+		mappings.addMapping(new StubMapping(withParameter, new ResponseDefinition(201, "")));
+
+		assertThat(mappings.serveFor(aRequest(context, "a=1").withMethod(GET).withUrl("/other").withParameter("a", "1").build()).getStatus(), is(201));
+		assertThat(mappings.serveFor(aRequest(context, "a=2").withMethod(GET).withUrl("/other").withParameter("a", "2").build()).getStatus(), is(HTTP_NOT_FOUND));
+		assertThat(mappings.serveFor(aRequest(context, "a=1 again").withMethod(GET).withUrl("/other").withParameter("a", "1").build()).getStatus(), is(201));
+	}
+
 	@Test
 	public void returnsNotConfiguredResponseForUnmappedRequest() {
 		Request request = aRequest(context).withMethod(OPTIONS).withUrl("/not/mapped").build();
@@ -115,6 +159,38 @@ public class InMemoryMappingsTest {
 		assertThat(response.getBody(), is("Desired content"));
 	}
 	
+	@Test
+	public void returnsHigherPriorityUrlPatternMappingOverExactUrlMapping() {
+		mappings.addMapping(new StubMapping(
+				new RequestPattern(GET, "/prioritised/resource"),
+				new ResponseDefinition(204, "Exact URL content")));
+
+		RequestPattern urlPattern = new RequestPattern(GET);
+		urlPattern.setUrlPattern("/prioritised/.*");
+		StubMapping urlPatternMapping = new StubMapping(urlPattern, new ResponseDefinition(200, "URL pattern content"));
+		urlPatternMapping.setPriority(1);
+		mappings.addMapping(urlPatternMapping);
+
+		ResponseDefinition response = mappings.serveFor(aRequest(context).withMethod(GET).withUrl("/prioritised/resource").build());
+
+		assertThat(response.getBody(), is("URL pattern content"));
+	}
+
+	@Test
+	public void returnsMostRecentlyInsertedResponseWhenExactUrlMappingIsNewerThanUrlPatternMapping() {
+		RequestPattern urlPattern = new RequestPattern(ANY);
+		urlPattern.setUrlPattern("/recent/.*");
+		mappings.addMapping(new StubMapping(urlPattern, new ResponseDefinition(200, "URL pattern content")));
+
+		mappings.addMapping(new StubMapping(
+				new RequestPattern(GET, "/recent/resource"),
+				new ResponseDefinition(200, "Exact URL content")));
+
+		ResponseDefinition response = mappings.serveFor(aRequest(context).withMethod(GET).withUrl("/recent/resource").build());
+
+		assertThat(response.getBody(), is("Exact URL content"));
+	}
+
 	@Test
 	public void returnsMappingInScenarioOnlyWhenStateIsCorrect() {
 		StubMapping firstGetMapping = new StubMapping(
@@ -149,6 +225,21 @@ public class InMemoryMappingsTest {
 		assertThat(mappings.serveFor(secondGet).getBody(), is("Modified content"));
 	}
 	
+	@Test
+	public void registersNoScenarioForMappingRejectedForAnInvalidPattern() {
+		RequestPattern requestPattern = new RequestPattern(GET);
+		requestPattern.setUrlPattern("/scenario/(unclosed");
+		StubMapping invalidMapping = new StubMapping(requestPattern, new ResponseDefinition(200, ""));
+		invalidMapping.setScenarioName("RejectedScenario");
+
+		try {
+			mappings.addMapping(invalidMapping);
+			fail("Expected the invalid URL pattern to be rejected");
+		} catch (PatternSyntaxException e) {
+			assertThat(mappings.scenarioNames().contains("RejectedScenario"), is(false));
+		}
+	}
+
 	@Test
 	public void returnsMappingInScenarioWithNoRequiredState() {
 		StubMapping firstGetMapping = new StubMapping(
@@ -232,6 +323,102 @@ public class InMemoryMappingsTest {
         assertThat(mappings.serveFor(request).getBody(), is("Starting content"));
     }
 
+    @Test
+    public void returnsNewlyAddedMappingForRequestServedBeforeItWasAdded() {
+        mappings.addMapping(new StubMapping(
+                new RequestPattern(GET, "/cached/resource"),
+                new ResponseDefinition(200, "Original content")));
+
+        Request request = aRequest(context).withMethod(GET).withUrl("/cached/resource").build();
+        assertThat(mappings.serveFor(request).getBody(), is("Original content"));
+
+        mappings.addMapping(new StubMapping(
+                new RequestPattern(GET, "/cached/resource"),
+                new ResponseDefinition(200, "Replacement content")));
+
+        assertThat(mappings.serveFor(request).getBody(), is("Replacement content"));
+    }
+
+    @Test
+    public void distinguishesRepeatedRequestsByReferencedHeaderValues() {
+        RequestPattern jsonPattern = new RequestPattern(GET, "/negotiated/resource");
+        jsonPattern.addHeader("Accept", equalTo("application/json"));
+        mappings.addMapping(new StubMapping(jsonPattern, new ResponseDefinition(200, "JSON content")));
+        mappings.addMapping(new StubMapping(
+                new RequestPattern(GET, "/negotiated/resource"),
+                new ResponseDefinition(200, "Default content")));
+
+        Request jsonRequest = aRequest(context, "jsonRequest").withMethod(GET).withUrl("/negotiated/resource")
+                .withHeader("Accept", "application/json").build();
+        Request xmlRequest = aRequest(context, "xmlRequest").withMethod(GET).withUrl("/negotiated/resource")
+                .withHeader("Accept", "text/xml").build();
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(mappings.serveFor(jsonRequest).getBody(), is("Default content"));
+            assertThat(mappings.serveFor(xmlRequest).getBody(), is("Default content"));
+        }
+
+        mappings.reset();
+        mappings.addMapping(new StubMapping(
+                new RequestPattern(GET, "/negotiated/resource"),
+                new ResponseDefinition(200, "Default content")));
+        mappings.addMapping(new StubMapping(jsonPattern, new ResponseDefinition(200, "JSON content")));
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(mappings.serveFor(jsonRequest).getBody(), is("JSON content"));
+            assertThat(mappings.serveFor(xmlRequest).getBody(), is("Default content"));
+        }
+    }
+
+    @Test
+    public void evaluatesBodyPatternsForEveryRequest() {
+        RequestPattern bodyPattern = new RequestPattern(POST, "/body/resource");
+        bodyPattern.setBodyPatterns(asList(containing("expected")));
+        mappings.addMapping(new StubMapping(bodyPattern, new ResponseDefinition(200, "Body matched")));
+
+        Request matchingRequest = aRequest(context, "matchingRequest").withMethod(POST).withUrl("/body/resource")
+                .withBody("the expected body").build();
+        Request otherRequest = aRequest(context, "otherRequest").withMethod(POST).withUrl("/body/resource")
+                .withBody("another body").build();
+
+        assertThat(mappings.serveFor(matchingRequest).getBody(), is("Body matched"));
+        assertThat(mappings.serveFor(otherRequest).getStatus(), is(HTTP_NOT_FOUND));
+        assertThat(mappings.serveFor(matchingRequest).getBody(), is("Body matched"));
+    }
+
+    @Test
+    public void matchesJsonBodiesWithTheSameCanonicalFormAndNeverCachesByBody() {
+        RequestPattern jsonPattern = new RequestPattern(POST, "/json/resource");
+        jsonPattern.setBodyPatterns(asList(equalToJson("{ \"id\": 1, \"tags\": [\"a\", \"b\"] }")));
+        mappings.addMapping(new StubMapping(
+                new RequestPattern(POST, "/json/resource"),
+                new ResponseDefinition(200, "Default content")));
+        mappings.addMapping(new StubMapping(jsonPattern, new ResponseDefinition(200, "JSON matched")));
+
+        Request matchingRequest = aRequest(context, "matchingRequest").withMethod(POST).withUrl("/json/resource")
+                .withBody("{ \"tags\": [\"b\", \"a\"], \"id\": 1.0 }").build();
+        Request otherRequest = aRequest(context, "otherRequest").withMethod(POST).withUrl("/json/resource")
+                .withBody("{ \"tags\": [\"b\"], \"id\": 1 }").build();
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(mappings.serveFor(otherRequest).getBody(), is("Default content"));
+            assertThat(mappings.serveFor(matchingRequest).getBody(), is("JSON matched"));
+        }
+    }
+
+    @Test
+    public void resolvesBodyTemplateWithGroupsFromWinningMapping() {
+        RequestPattern pattern = new RequestPattern(GET);
+        pattern.setUrlPattern("/templated/(.*)");
+        ResponseDefinition response = new ResponseDefinition();
+        response.setBodyTemplate("Hello %s");
+        mappings.addMapping(new StubMapping(pattern, response));
+
+        Request request = aRequest(context).withMethod(GET).withUrl("/templated/world").build();
+
+        assertThat(mappings.serveFor(request).getBody(), is("Hello world"));
+    }
+
     private StubMapping aBasicMappingInScenario(String body) {
         StubMapping mapping = new StubMapping(
                 new RequestPattern(POST, "/scenario/resource"),
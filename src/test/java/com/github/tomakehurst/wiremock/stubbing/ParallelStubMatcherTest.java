@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.github.tomakehurst.wiremock.http.HttpHeader.httpHeader;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.equalTo;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.matches;
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ParallelStubMatcherTest {
+
+    private ExecutorService executor;
+    private ParallelStubMatcher matcher;
+
+    @Before
+    public void init() {
+        executor = Executors.newFixedThreadPool(4);
+        matcher = new ParallelStubMatcher(10, executor, 4);
+    }
+
+    @After
+    public void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsEarliestMatchingMappingWhenLaterChunksAlsoMatch() {
+        List<StubMapping> mappings = mappingsMatchingAt(1000, 700, 900, 999);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(matcher.firstMatch(mappings, aRequest()), is(mappings.get(700)));
+        }
+    }
+
+    @Test
+    public void returnsMatchInFirstChunk() {
+        List<StubMapping> mappings = mappingsMatchingAt(1000, 3, 500);
+
+        assertThat(matcher.firstMatch(mappings, aRequest()), is(mappings.get(3)));
+    }
+
+    @Test
+    public void returnsNullWhenNoMappingMatches() {
+        assertThat(matcher.firstMatch(mappingsMatchingAt(1000), aRequest()), is(nullValue()));
+    }
+
+    @Test
+    public void scansSmallListsSequentially() {
+        List<StubMapping> mappings = mappingsMatchingAt(5, 2, 4);
+
+        assertThat(matcher.firstMatch(mappings, aRequest()), is(mappings.get(2)));
+    }
+
+    @Test
+    public void servesMostRecentlyAddedMatchingMappingWhenMatchingConcurrently() {
+        InMemoryStubMappings stubMappings = new InMemoryStubMappings(false, 10);
+        for (int i = 0; i < 500; i++) {
+            RequestPattern pattern = new RequestPattern(GET);
+            pattern.setUrlPattern("/match/.*");
+            pattern.addHeader("X-Id", i % 100 == 0 ? matches(".*") : equalTo("mapping-" + i));
+            stubMappings.addMapping(new StubMapping(pattern, new ResponseDefinition(200, "Mapping " + i)));
+        }
+
+        Request request = new LoggedRequest("/match/this", "http://localhost:8080/match/this", GET,
+                new HttpHeaders(httpHeader("X-Id", "request")), "", false, new Date());
+        assertThat(stubMappings.serveFor(request).getBody(), is("Mapping 400"));
+    }
+
+    private static List<StubMapping> mappingsMatchingAt(int count, Integer... matchingIndexes) {
+        List<Integer> matching = newArrayList(matchingIndexes);
+        List<StubMapping> mappings = newArrayList();
+        for (int i = 0; i < count; i++) {
+            RequestPattern pattern = new RequestPattern(GET);
+            pattern.setUrlPattern(matching.contains(i) ? "/match/.*" : "/other/" + i + "/.*");
+            mappings.add(new StubMapping(pattern, new ResponseDefinition()));
+        }
+        return mappings;
+    }
+
+    private static Request aRequest() {
+        return new LoggedRequest("/match/this", "http://localhost:8080/match/this", GET, new HttpHeaders(), "", false, new Date());
+    }
+}
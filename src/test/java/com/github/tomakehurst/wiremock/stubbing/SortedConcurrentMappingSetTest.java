@@ -15,26 +15,38 @@
  */
 package com.github.tomakehurst.wiremock.stubbing;
 
+import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
+import org.jmock.Mockery;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+
 import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.ValuePattern.equalTo;
+import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.hasExactly;
+import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
 public class SortedConcurrentMappingSetTest {
 	
 	private SortedConcurrentMappingSet mappingSet;
+	private Mockery context;
 	
 	@Before
 	public void init() {
 		mappingSet = new SortedConcurrentMappingSet();
+		context = new Mockery();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -83,8 +95,129 @@ public class SortedConcurrentMappingSetTest {
 		assertThat("Mapping set should be empty", mappingSet.iterator().hasNext(), is(false));
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void returnsCandidatesWithExactUrlMappingsInterleavedInPriorityThenInsertionOrder() {
+		mappingSet.add(aMapping(3, "/things/1"));
+		mappingSet.add(aUrlPatternMapping(3, "/things/.*"));
+		mappingSet.add(aMapping(GET, 1, "/things/1"));
+		mappingSet.add(aMapping(POST, 1, "/things/1"));
+		mappingSet.add(aMapping(GET, 1, "/things/2"));
+		mappingSet.add(aUrlPatternMapping(6, ".*"));
+		mappingSet.add(aMapping(null, "/things/1"));
+
+		assertThat(mappingSet.candidatesFor(aRequest(context).withMethod(GET).withUrl("/things/1").build()), hasExactly(
+				requestUrlIs("/things/1"),
+				requestUrlPatternIs("/things/.*"),
+				requestUrlIs("/things/1"),
+				requestUrlIs("/things/1"),
+				requestUrlPatternIs(".*")));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void returnsOnlyUnindexedCandidatesWhenNoExactUrlMappingMatches() {
+		mappingSet.add(aMapping(GET, 1, "/things/1"));
+		mappingSet.add(aUrlPatternMapping(3, "/things/.*"));
+
+		assertThat(mappingSet.candidatesFor(aRequest(context).withMethod(GET).withUrl("/things/2").build()), hasExactly(
+				requestUrlPatternIs("/things/.*")));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void returnsUrlPatternCandidatesOnlyWhenUrlPatternMatches() {
+		mappingSet.add(aUrlPatternMapping(3, "/things/[0-9]+"));
+		mappingSet.add(aUrlPatternMapping(3, "/other-things/[0-9]+"));
+		mappingSet.add(aUrlPatternMapping(3, "/th.*"));
+		mappingSet.add(aUrlPatternMapping(3, "[a-z/]+"));
+		mappingSet.add(aUrlPatternMapping(3, "[a-z/]+[0-9]"));
+
+		assertThat(mappingSet.candidatesFor(aRequest(context).withMethod(GET).withUrl("/things/1").build()), hasExactly(
+				requestUrlPatternIs("[a-z/]+[0-9]"),
+				requestUrlPatternIs("/th.*"),
+				requestUrlPatternIs("/things/[0-9]+")));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void returnsCandidatesWithUrlPatternsTheAutomatonCannotEvaluateWhenUrlStartsWithLiteralPrefix() {
+		mappingSet.add(aUrlPatternMapping(3, "/things/([0-9])\\1"));
+		mappingSet.add(aUrlPatternMapping(3, "/other-things/([0-9])\\1"));
+		mappingSet.add(aUrlPatternMapping(3, "(?i)/THINGS/.*"));
+
+		assertThat(mappingSet.candidatesFor(aRequest(context).withMethod(GET).withUrl("/things/1").build()), hasExactly(
+				requestUrlPatternIs("(?i)/THINGS/.*"),
+				requestUrlPatternIs("/things/([0-9])\\1")));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void returnsCandidatesKeyedByBodyOnlyWhenRequestBodyIsTheOneExpected() {
+		mappingSet.add(aMapping(POST, 3, "/orders"));
+		mappingSet.add(aMappingWithBody(POST, "/orders", "order 1"));
+		mappingSet.add(aMappingWithBody(POST, "/orders", "order 2"));
+		mappingSet.add(aMappingWithBody(ANY, "/orders", "order 2"));
+
+		assertThat(mappingSet.candidatesFor(aRequest(context).withMethod(POST).withUrl("/orders").withBody("order 2").build()), hasExactly(
+				requestBodyIs("order 2"),
+				requestBodyIs("order 2"),
+				requestUrlIs("/orders")));
+		assertThat(mappingSet.candidatesDependOnBody(aRequest(context, "get").withMethod(GET).withUrl("/orders").build()), is(true));
+		assertThat(mappingSet.candidatesDependOnBody(aRequest(context, "other url").withMethod(POST).withUrl("/customers").build()), is(false));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void addsBatchOfMappingsInTheSameOrderAsAddingThemOneAtATime() {
+		mappingSet.add(aMapping(3, "/things/1"));
+		mappingSet.addAll(asList(
+				aUrlPatternMapping(3, "/things/.*"),
+				aMapping(GET, 1, "/things/1"),
+				aMapping(POST, 1, "/things/1"),
+				aMapping(GET, 1, "/things/2"),
+				aUrlPatternMapping(6, ".*"),
+				aMapping(null, "/things/1")));
+
+		assertThat(mappingSet.candidatesFor(aRequest(context).withMethod(GET).withUrl("/things/1").build()), hasExactly(
+				requestUrlIs("/things/1"),
+				requestUrlPatternIs("/things/.*"),
+				requestUrlIs("/things/1"),
+				requestUrlIs("/things/1"),
+				requestUrlPatternIs(".*")));
+	}
+
+	@Test
+	public void clearsCandidatesCorrectly() {
+		mappingSet.add(aMapping(GET, 1, "/things/1"));
+		mappingSet.add(aUrlPatternMapping(3, "/things/.*"));
+
+		mappingSet.clear();
+
+		assertThat("Candidates should be empty",
+				mappingSet.candidatesFor(aRequest(context).withMethod(GET).withUrl("/things/1").build()).iterator().hasNext(), is(false));
+	}
+	
 	private StubMapping aMapping(Integer priority, String url) {
-		RequestPattern requestPattern = new RequestPattern(ANY, url);
+		return aMapping(ANY, priority, url);
+	}
+
+	private StubMapping aMapping(RequestMethod method, Integer priority, String url) {
+		RequestPattern requestPattern = new RequestPattern(method, url);
+		StubMapping mapping = new StubMapping(requestPattern, new ResponseDefinition());
+		mapping.setPriority(priority);
+		return mapping;
+	}
+
+	private StubMapping aMappingWithBody(RequestMethod method, String url, String body) {
+		StubMapping mapping = aMapping(method, 3, url);
+		mapping.getRequest().setBodyPatterns(asList(equalTo(body)));
+		return mapping;
+	}
+
+	private StubMapping aUrlPatternMapping(Integer priority, String urlPattern) {
+		RequestPattern requestPattern = new RequestPattern(ANY);
+		requestPattern.setUrlPattern(urlPattern);
 		StubMapping mapping = new StubMapping(requestPattern, new ResponseDefinition());
 		mapping.setPriority(priority);
 		return mapping;
@@ -99,9 +232,40 @@ public class SortedConcurrentMappingSetTest {
 
 			@Override
 			public boolean matchesSafely(StubMapping actualMapping) {
-				return actualMapping.getRequest().getUrl().equals(expectedUrl);
+				return expectedUrl.equals(actualMapping.getRequest().getUrl());
 			}
 			
 		};
 	}
+
+	private Matcher<StubMapping> requestBodyIs(final String expectedBody) {
+		return new TypeSafeMatcher<StubMapping>() {
+
+			@Override
+			public void describeTo(Description desc) {
+			}
+
+			@Override
+			public boolean matchesSafely(StubMapping actualMapping) {
+				List<ValuePattern> bodyPatterns = actualMapping.getRequest().getBodyPatterns();
+				return bodyPatterns != null && expectedBody.equals(bodyPatterns.get(0).getEqualTo());
+			}
+
+		};
+	}
+
+	private Matcher<StubMapping> requestUrlPatternIs(final String expectedUrlPattern) {
+		return new TypeSafeMatcher<StubMapping>() {
+
+			@Override
+			public void describeTo(Description desc) {
+			}
+
+			@Override
+			public boolean matchesSafely(StubMapping actualMapping) {
+				return expectedUrlPattern.equals(actualMapping.getRequest().getUrlPattern());
+			}
+
+		};
+	}
 }
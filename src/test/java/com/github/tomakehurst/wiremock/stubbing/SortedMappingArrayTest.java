@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SortedMappingArrayTest {
+
+    private static final Comparator<StubMapping> BY_URL = new Comparator<StubMapping>() {
+        public int compare(StubMapping one, StubMapping two) {
+            return one.getRequest().getUrl().compareTo(two.getRequest().getUrl());
+        }
+    };
+
+    @Test
+    public void insertsMappingsInComparatorOrder() {
+        SortedMappingArray array = SortedMappingArray.empty(BY_URL)
+                .with(aMapping("/c"))
+                .with(aMapping("/a"))
+                .with(aMapping("/d"))
+                .with(aMapping("/b"));
+
+        assertThat(urlsOf(array), is(asList("/a", "/b", "/c", "/d")));
+        assertThat(array.size(), is(4));
+        assertThat(array.get(0).getRequest().getUrl(), is("/a"));
+    }
+
+    @Test
+    public void leavesOriginalSnapshotUnchangedWhenAdding() {
+        SortedMappingArray original = SortedMappingArray.empty(BY_URL).with(aMapping("/b"));
+
+        SortedMappingArray updated = original.with(aMapping("/a"));
+
+        assertThat(urlsOf(original), is(asList("/b")));
+        assertThat(urlsOf(updated), is(asList("/a", "/b")));
+    }
+
+    @Test
+    public void insertsBatchOfMappingsInComparatorOrderAmongExistingOnes() {
+        SortedMappingArray original = SortedMappingArray.empty(BY_URL).with(aMapping("/c"));
+
+        SortedMappingArray updated = original.withAll(asList(aMapping("/d"), aMapping("/a"), aMapping("/b")));
+
+        assertThat(urlsOf(original), is(asList("/c")));
+        assertThat(urlsOf(updated), is(asList("/a", "/b", "/c", "/d")));
+    }
+
+    private static List<String> urlsOf(SortedMappingArray array) {
+        List<String> urls = newArrayList();
+        for (StubMapping mapping: array) {
+            urls.add(mapping.getRequest().getUrl());
+        }
+        return urls;
+    }
+
+    private static StubMapping aMapping(String url) {
+        return new StubMapping(new RequestPattern(ANY, url), new ResponseDefinition());
+    }
+}
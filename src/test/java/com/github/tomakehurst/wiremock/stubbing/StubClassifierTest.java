@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.ValuePattern;
+import org.jmock.Mockery;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StubClassifierTest {
+
+    private Mockery context;
+
+    @Before
+    public void init() {
+        context = new Mockery();
+    }
+
+    @Test
+    public void excludesMappingsForOtherMethods() {
+        StubMapping getMapping = aMapping(GET);
+        StubMapping postMapping = aMapping(POST);
+        StubMapping anyMapping = aMapping(ANY);
+        StubClassifier classifier = new StubClassifier(asList(getMapping, postMapping, anyMapping));
+
+        StubClassifier.Classification classification = classifier.classify(aRequest(context).withMethod(GET).build());
+
+        assertThat(classification.mayMatch(getMapping), is(true));
+        assertThat(classification.mayMatch(postMapping), is(false));
+        assertThat(classification.mayMatch(anyMapping), is(true));
+    }
+
+    @Test
+    public void excludesMappingsRequiringHeadersTheRequestDoesNotHave() {
+        StubMapping requiringTenant = aMapping(ANY);
+        requiringTenant.getRequest().addHeader("X-Tenant", ValuePattern.equalTo("acme"));
+        StubMapping requiringAccept = aMapping(ANY);
+        requiringAccept.getRequest().addHeader("Accept", ValuePattern.matches(".*json.*"));
+        StubClassifier classifier = new StubClassifier(asList(requiringTenant, requiringAccept));
+
+        StubClassifier.Classification classification = classifier.classify(
+                aRequest(context).withHeader("x-tenant", "other").build());
+
+        assertThat(classification.mayMatch(requiringTenant), is(true));
+        assertThat(classification.mayMatch(requiringAccept), is(false));
+    }
+
+    @Test
+    public void excludesMappingsRequiringHeadersToBeAbsentTheRequestHas() {
+        StubMapping requiringNoAuth = aMapping(ANY);
+        requiringNoAuth.getRequest().addHeader("Authorization", ValuePattern.absent());
+        StubClassifier classifier = new StubClassifier(asList(requiringNoAuth));
+
+        assertThat(classifier.classify(aRequest(context, "with auth").withHeader("Authorization", "Basic 123").build())
+                .mayMatch(requiringNoAuth), is(false));
+        assertThat(classifier.classify(aRequest(context, "without auth").build())
+                .mayMatch(requiringNoAuth), is(true));
+    }
+
+    @Test
+    public void excludesMappingsRequiringParametersTheRequestDoesNotHave() {
+        StubMapping requiringRegion = aMapping(ANY);
+        requiringRegion.getRequest().addParameter("region", ValuePattern.equalTo("eu"));
+        StubClassifier classifier = new StubClassifier(asList(requiringRegion));
+
+        assertThat(classifier.classify(aRequest(context, "with region").withParameter("region", "us").build())
+                .mayMatch(requiringRegion), is(true));
+        assertThat(classifier.classify(aRequest(context, "without region").build())
+                .mayMatch(requiringRegion), is(false));
+    }
+
+    @Test
+    public void readsParametersOnlyWhenSomeUrlCandidateConstrainsThem() {
+        StubMapping requiringRegion = aMapping(ANY);
+        requiringRegion.getRequest().addParameter("region", ValuePattern.equalTo("eu"));
+        StubMapping form = aMapping(POST);
+        StubClassifier classifier = new StubClassifier(asList(requiringRegion, form));
+
+        StubClassifier.Classification classification = classifier.classify(
+                aRequest(context).withMethod(POST).withUnreadableParameters().build(), asList(form));
+
+        assertThat(classification.mayMatch(form), is(true));
+        assertThat(classification.mayMatch(requiringRegion), is(false));
+    }
+
+    @Test
+    public void keepsOnlyMappingsExpectingTheRequestsHeaderValue() {
+        StubMapping acme = aMapping(ANY);
+        acme.getRequest().addHeader("X-Tenant", ValuePattern.equalTo("acme"));
+        StubMapping globex = aMapping(ANY);
+        globex.getRequest().addHeader("X-Tenant", ValuePattern.equalTo("globex"));
+        StubMapping anyTenant = aMapping(ANY);
+        anyTenant.getRequest().addHeader("X-Tenant", ValuePattern.matches(".*"));
+        StubClassifier classifier = new StubClassifier(asList(acme, globex, anyTenant));
+
+        StubClassifier.Classification classification = classifier.classify(
+                aRequest(context).withHeader("X-Tenant", "globex").build());
+
+        assertThat(classification.mayMatch(acme), is(false));
+        assertThat(classification.mayMatch(globex), is(true));
+        assertThat(classification.mayMatch(anyTenant), is(true));
+    }
+
+    @Test
+    public void keepsOnlyMappingsExpectingTheRequestsParameterValue() {
+        StubMapping eu = aMapping(ANY);
+        eu.getRequest().addParameter("region", ValuePattern.equalTo("eu"));
+        StubMapping us = aMapping(ANY);
+        us.getRequest().addParameter("region", ValuePattern.equalTo("us"));
+        StubMapping unconstrained = aMapping(ANY);
+        StubClassifier classifier = new StubClassifier(asList(eu, us, unconstrained));
+
+        StubClassifier.Classification classification = classifier.classify(
+                aRequest(context).withParameter("region", "eu").build());
+
+        assertThat(classification.mayMatch(eu), is(true));
+        assertThat(classification.mayMatch(us), is(false));
+        assertThat(classification.mayMatch(unconstrained), is(true));
+        assertThat(classifier.classify(aRequest(context, "other region").withParameter("region", "apac").build())
+                .mayMatch(eu), is(false));
+    }
+
+    @Test
+    public void excludesNonExtensibleJsonBodyMappingsWithADifferentCanonicalBody() {
+        StubMapping requiringOrder = aMapping(POST);
+        requiringOrder.getRequest().setBodyPatterns(asList(ValuePattern.equalToJson("{ \"id\": 1 }")));
+        StubMapping requiringOther = aMapping(POST);
+        requiringOther.getRequest().setBodyPatterns(asList(ValuePattern.equalToJson("{ \"id\": 2 }")));
+        StubMapping lenient = aMapping(POST);
+        lenient.getRequest().setBodyPatterns(asList(ValuePattern.equalToJson("{ \"id\": 2 }", JSONCompareMode.LENIENT)));
+        StubClassifier classifier = new StubClassifier(asList(requiringOrder, requiringOther, lenient));
+
+        StubClassifier.Classification classification = classifier.classify(
+                aRequest(context).withMethod(POST).withBody("{\"id\":1.0}").build());
+
+        assertThat(classification.dependsOnBody(), is(true));
+        assertThat(classification.mayMatch(requiringOrder), is(true));
+        assertThat(classification.mayMatch(requiringOther), is(false));
+        assertThat(classification.mayMatch(lenient), is(true));
+    }
+
+    @Test
+    public void doesNotReadBodyWhenNoJsonBodyMappingRemains() {
+        StubMapping jsonPost = aMapping(POST);
+        jsonPost.getRequest().setBodyPatterns(asList(ValuePattern.equalToJson("{ \"id\": 1 }")));
+        StubClassifier classifier = new StubClassifier(asList(jsonPost, aMapping(GET)));
+
+        StubClassifier.Classification classification = classifier.classify(aRequest(context).withMethod(GET).build());
+
+        assertThat(classification.dependsOnBody(), is(false));
+    }
+
+    @Test
+    public void excludesMappingsRequiringBodyLiteralsTheBodyDoesNotContain() {
+        StubMapping requiringOrder = aMapping(POST);
+        requiringOrder.getRequest().setBodyPatterns(asList(ValuePattern.containing("order"), ValuePattern.containing("42")));
+        StubMapping requiringRefund = aMapping(POST);
+        requiringRefund.getRequest().setBodyPatterns(asList(ValuePattern.containing("refund")));
+        StubMapping requiringOrderAndRefund = aMapping(POST);
+        requiringOrderAndRefund.getRequest().setBodyPatterns(asList(ValuePattern.containing("order"), ValuePattern.containing("refund")));
+        StubClassifier classifier = new StubClassifier(asList(requiringOrder, requiringRefund, requiringOrderAndRefund));
+
+        StubClassifier.Classification classification = classifier.classify(
+                aRequest(context).withMethod(POST).withBody("new order 42").build());
+
+        assertThat(classification.dependsOnBody(), is(true));
+        assertThat(classification.mayMatch(requiringOrder), is(true));
+        assertThat(classification.mayMatch(requiringRefund), is(false));
+        assertThat(classification.mayMatch(requiringOrderAndRefund), is(false));
+    }
+
+    @Test
+    public void alwaysConsidersUnclassifiedMappingsPossibleMatches() {
+        StubClassifier classifier = new StubClassifier(asList(aMapping(GET)));
+
+        Request request = aRequest(context).withMethod(POST).build();
+
+        assertThat(classifier.classify(request).mayMatch(aMapping(GET)), is(true));
+    }
+
+    private StubMapping aMapping(RequestMethod method) {
+        return new StubMapping(new RequestPattern(method, "/things"), new ResponseDefinition());
+    }
+}
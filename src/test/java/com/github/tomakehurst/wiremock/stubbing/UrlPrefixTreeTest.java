@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.google.common.collect.Iterables.concat;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class UrlPrefixTreeTest {
+
+    private UrlPrefixTree tree;
+
+    @Before
+    public void init() {
+        tree = new UrlPrefixTree(new Comparator<StubMapping>() {
+            public int compare(StubMapping one, StubMapping two) {
+                return one.getRequest().getUrlPattern().compareTo(two.getRequest().getUrlPattern());
+            }
+        });
+    }
+
+    @Test
+    public void returnsMappingsForEveryPrefixOfUrlShortestFirst() {
+        add("/api/", "/api/.*");
+        add("/api/v2/orders/", "/api/v2/orders/[0-9]+");
+        add("/api/v2/", "/api/v2/.*");
+        add("/api/v2/customers/", "/api/v2/customers/[0-9]+");
+
+        assertThat(urlPatternsPrefixing("/api/v2/orders/123"),
+                is(asList("/api/.*", "/api/v2/.*", "/api/v2/orders/[0-9]+")));
+    }
+
+    @Test
+    public void splitsNodesWhenPrefixesDiverge() {
+        add("/api/orders", "/api/orders.*");
+        add("/api/other", "/api/other.*");
+        add("/api/o", "/api/o.*");
+
+        assertThat(urlPatternsPrefixing("/api/other/1"), is(asList("/api/o.*", "/api/other.*")));
+        assertThat(urlPatternsPrefixing("/api/orders/1"), is(asList("/api/o.*", "/api/orders.*")));
+        assertThat(urlPatternsPrefixing("/api/x").isEmpty(), is(true));
+    }
+
+    @Test
+    public void doesNotReturnMappingsWhosePrefixIsLongerThanUrl() {
+        add("/api/orders/", "/api/orders/.*");
+
+        assertThat(urlPatternsPrefixing("/api/orders").isEmpty(), is(true));
+    }
+
+    @Test
+    public void addsBatchOfMappingsUnderSharedAndDivergingPrefixes() {
+        add("/api/", "/api/.*");
+
+        Map<String, List<StubMapping>> batch = newHashMap();
+        batch.put("/api/orders", asList(aMapping("/api/orders.*"), aMapping("/api/orders/[0-9]+")));
+        batch.put("/api/other", asList(aMapping("/api/other.*")));
+        batch.put("/api/", asList(aMapping("/api/v.*")));
+        tree.addAll(batch);
+
+        assertThat(urlPatternsPrefixing("/api/orders/1"),
+                is(asList("/api/.*", "/api/v.*", "/api/orders.*", "/api/orders/[0-9]+")));
+        assertThat(urlPatternsPrefixing("/api/other/1"), is(asList("/api/.*", "/api/v.*", "/api/other.*")));
+    }
+
+    @Test
+    public void leavesMappingsAlreadyReadUnchangedWhenAdding() {
+        add("/api/", "/api/.*");
+        List<Iterable<StubMapping>> before = tree.mappingsPrefixing("/api/orders/1");
+
+        add("/api/orders/", "/api/orders/.*");
+
+        assertThat(before.size(), is(1));
+        assertThat(urlPatternsPrefixing("/api/orders/1"), is(asList("/api/.*", "/api/orders/.*")));
+    }
+
+    @Test
+    public void clearsCorrectly() {
+        add("/api/orders/", "/api/orders/.*");
+
+        tree.clear();
+
+        assertThat(urlPatternsPrefixing("/api/orders/1").isEmpty(), is(true));
+    }
+
+    private void add(String prefix, String urlPattern) {
+        tree.add(prefix, aMapping(urlPattern));
+    }
+
+    private static StubMapping aMapping(String urlPattern) {
+        RequestPattern requestPattern = new RequestPattern(ANY);
+        requestPattern.setUrlPattern(urlPattern);
+        return new StubMapping(requestPattern, new ResponseDefinition());
+    }
+
+    private List<String> urlPatternsPrefixing(String url) {
+        List<String> urlPatterns = newArrayList();
+        for (StubMapping mapping: concat(tree.mappingsPrefixing(url))) {
+            urlPatterns.add(mapping.getRequest().getUrlPattern());
+        }
+        return urlPatterns;
+    }
+}
@@ -22,6 +22,8 @@ import org.jmock.Mockery;
 import java.util.List;
 
 import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.google.common.base.Charsets.ISO_8859_1;
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 
@@ -33,7 +35,9 @@ public class MockRequestBuilder {
     private List<HttpHeader> individualHeaders = newArrayList();
     private List<HttpParameter> individualParameters = newArrayList();
 	private String body = "";
+	private byte[] binaryBody;
 	private boolean browserProxyRequest = false;
+	private boolean parametersReadable = true;
 	
 	private String mockName;
 	
@@ -78,7 +82,21 @@ public class MockRequestBuilder {
 		this.body = body;
 		return this;
 	}
+
+	public MockRequestBuilder withBody(byte[] binaryBody) {
+		this.binaryBody = binaryBody;
+		this.body = new String(binaryBody, ISO_8859_1);
+		return this;
+	}
 	
+	/**
+	 * Fails the test if parameters are read, as a servlet request would consume a form encoded body doing so
+	 */
+	public MockRequestBuilder withUnreadableParameters() {
+		this.parametersReadable = false;
+		return this;
+	}
+
 	public MockRequestBuilder asBrowserProxyRequest() {
 		this.browserProxyRequest = true;
 		return this;
@@ -110,16 +128,21 @@ public class MockRequestBuilder {
 			allowing(request).getAllHeaderKeys(); will(returnValue(newLinkedHashSet(headers.keys())));
 			allowing(request).containsHeader(with(any(String.class))); will(returnValue(false));
 
-            for (HttpParameter parameter: parameters.all()) {
-                allowing(request).parameter(parameter.key()); will(returnValue(parameter));
-            }
-
-            allowing(request).parameter(with(any(String.class))); will(returnValue(HttpParameter
-                    .absent("key")));
-            allowing(request).getParameters(); will(returnValue(parameters));
+            if (parametersReadable) {
+                for (HttpParameter parameter: parameters.all()) {
+                    allowing(request).parameter(parameter.key()); will(returnValue(parameter));
+                }
 
+                allowing(request).parameter(with(any(String.class))); will(returnValue(HttpParameter
+                        .absent("key")));
+                allowing(request).getParameters(); will(returnValue(parameters));
+            } else {
+                never(request).parameter(with(any(String.class)));
+                never(request).getParameters();
+            }
 
 			allowing(request).getBodyAsString(); will(returnValue(body));
+			allowing(request).getBody(); will(returnValue(binaryBody != null ? binaryBody : body.getBytes(UTF_8)));
 			allowing(request).getAbsoluteUrl(); will(returnValue("http://localhost:8080" + url));
 			allowing(request).isBrowserProxyRequest(); will(returnValue(browserProxyRequest));
 		}});
@@ -32,7 +32,9 @@ import static com.github.tomakehurst.wiremock.http.HttpHeader.httpHeader;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
 import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
 import static com.github.tomakehurst.wiremock.verification.LoggedRequest.createFrom;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalToIgnoringWhiteSpace;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.*;
 
 @RunWith(JMock.class)
@@ -97,6 +99,53 @@ public class LoggedRequestTest {
         assertThat(Json.write(loggedRequest), equalToIgnoringWhiteSpace(expectedJson));
     }
 
+    @Test
+    public void binaryBodySurvivesRoundTripThroughJson() {
+        byte[] body = new byte[] { 0x0A, 0x03, (byte) 0xFF, (byte) 0xC3, 0x28, 0x00 };
+        LoggedRequest loggedRequest = createFrom(aRequest(context)
+                .withUrl("/binary")
+                .withMethod(POST)
+                .withHeader("Content-Type", "application/octet-stream; charset=UTF-8")
+                .withBody(body)
+                .build());
+
+        String json = Json.write(loggedRequest);
+        LoggedRequest readBack = Json.read(json, LoggedRequest.class);
+
+        assertThat(json, containsString("bodyAsBase64"));
+        assertArrayEquals(body, readBack.getBody());
+    }
+
+    @Test
+    public void leavesOutBase64BodyWhenBodyStringHoldsTheBodyExactly() {
+        LoggedRequest loggedRequest = createFrom(aRequest(context)
+                .withUrl("/text")
+                .withMethod(POST)
+                .withHeader("Content-Type", "text/plain; charset=UTF-8")
+                .withBody("\u00e9t\u00e9")
+                .build());
+
+        String json = Json.write(loggedRequest);
+
+        assertThat(json, not(containsString("bodyAsBase64")));
+        assertEquals("\u00e9t\u00e9", Json.read(json, LoggedRequest.class).getBodyAsString());
+    }
+
+    @Test
+    public void decodesBodyUsingCharsetFromContentType() {
+        LoggedRequest loggedRequest = new LoggedRequest(
+                "/my/url",
+                "http://mydomain.com/my/url",
+                RequestMethod.POST,
+                new HttpHeaders(httpHeader("Content-Type", "text/plain; charset=UTF-8")),
+                null,
+                "w6nDqMOq",
+                false,
+                new Date());
+
+        assertEquals("\u00e9\u00e8\u00ea", loggedRequest.getBodyAsString());
+    }
+
     private Date parse(String dateString) throws Exception {
         SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd hh:mm:ss");
         return df.parse(dateString);